@@ -0,0 +1,88 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mykhaliev.api.client.codec.Codec;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pet list serialization and deserialization with each codec, encoded size is reported as secondary result
+ * of serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class CodecBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String codec;
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private Response<List<Pet>> payload;
+
+    private byte[] encoded;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    @Setup
+    public void setup() throws IOException {
+        Codec selected;
+        switch (codec) {
+            case "smile":
+                selected = Codec.smile();
+                break;
+            case "cbor":
+                selected = Codec.cbor();
+                break;
+            default:
+                selected = Codec.json();
+        }
+        List<Pet> pets = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            pets.add(new Pet(i, "pet-" + i));
+        }
+        payload = new Response<>(1, pets, size, 0L, (long) size);
+        TypeReference<Response<List<Pet>>> type = new TypeReference<Response<List<Pet>>>() {
+        };
+        writer = selected.getMapper().writerFor(type);
+        reader = selected.getMapper().readerFor(type);
+        encoded = writer.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serialize(EncodedSize encodedSize) throws IOException {
+        byte[] bytes = writer.writeValueAsBytes(payload);
+        encodedSize.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Response<List<Pet>> deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    /**
+     * Size of one encoded payload, shown by each iteration, the summary line sums it over iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long encodedBytes;
+    }
+}
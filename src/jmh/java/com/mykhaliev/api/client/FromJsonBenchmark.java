@@ -0,0 +1,71 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response deserialization benchmark, run with gc profiler to compare bytes/op
+ * of buffering the entity into a string against streaming it to jackson with cached reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class FromJsonBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final TypeReference<Response<List<Pet>>> PETS_TYPE = new TypeReference<Response<List<Pet>>>() {
+    };
+
+    @Param({"1", "100", "10000", "100000"})
+    private int size;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Pet> pets = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            pets.add(new Pet(i, "pet-" + i));
+        }
+        payload = MAPPER.writeValueAsBytes(new Response<>(1, pets, size, 0L, (long) size));
+    }
+
+    @Benchmark
+    public Response<List<Pet>> stringBuffered() throws IOException {
+        ByteArrayEntity entity = new ByteArrayEntity(payload, ContentType.APPLICATION_JSON);
+        return MAPPER.readValue(EntityUtils.toString(entity, StandardCharsets.UTF_8), PETS_TYPE);
+    }
+
+    @Benchmark
+    public Response<List<Pet>> mapperPerCall() throws IOException {
+        //resolves type on every call, as before reader cache
+        return MAPPER.readValue(payload, new TypeReference<Response<List<Pet>>>() {
+        });
+    }
+
+    @Benchmark
+    public Response<List<Pet>> streamed() {
+        return RestApiClient.fromJson(new ByteArrayEntity(payload, ContentType.APPLICATION_JSON), PETS_TYPE);
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.mykhaliev.api.client;
+
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.apache.http.HttpEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request payload serialization benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class JsonPayloadBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private Object payload;
+
+    @Setup
+    public void setup() {
+        if (size == 1) {
+            payload = new Pet(1L, "pet");
+            return;
+        }
+        List<Pet> pets = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            pets.add(new Pet(i, "pet-" + i));
+        }
+        payload = pets;
+    }
+
+    @Benchmark
+    public HttpEntity getJsonPayload() {
+        return RestApiClient.getJsonPayload(payload);
+    }
+}
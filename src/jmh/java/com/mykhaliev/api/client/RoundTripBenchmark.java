@@ -0,0 +1,104 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.model.api.RequestMethod;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client round trips against in-process stub server, reports throughput and latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class RoundTripBenchmark {
+
+    private static final TypeReference<Response<Pet>> PET_TYPE = new TypeReference<Response<Pet>>() {
+    };
+
+    @Param({"1024", "1048576"})
+    private int fileSize;
+
+    private StubServer server;
+
+    private RestApiClient client;
+
+    private File uploadFile;
+
+    private Pet pet;
+
+    @State(Scope.Thread)
+    public static class DownloadTarget {
+
+        private File file;
+
+        @Setup
+        public void setup() throws IOException {
+            file = File.createTempFile("download-", ".bin");
+        }
+
+        @TearDown
+        public void tearDown() {
+            file.delete();
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        server = new StubServer(fileSize);
+        client = new RestApiClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl(server.getUrl())
+                .username("username")
+                .password("password")
+                .poolMaxPerRoute(16)
+                .poolMaxTotal(16)
+                .build());
+        uploadFile = File.createTempFile("upload-", ".bin");
+        Files.write(uploadFile.toPath(), new byte[fileSize]);
+        pet = new Pet(1L, "pet");
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.stop();
+        uploadFile.delete();
+    }
+
+    @Benchmark
+    public Response<Pet> getJson() {
+        return client.callWithJson(RequestMethod.GET, "/pets/1", PET_TYPE, null);
+    }
+
+    @Benchmark
+    public Response<Pet> postJson() {
+        return client.callWithJson(RequestMethod.POST, "/pets", PET_TYPE, pet);
+    }
+
+    @Benchmark
+    public Response<Pet> getJsonAsync() {
+        return client.callWithJsonAsync(RequestMethod.GET, "/pets/1", PET_TYPE, null).join();
+    }
+
+    @Benchmark
+    public Response<Pet> uploadMultipart() {
+        return client.callWithMultipart(RequestMethod.POST, "/pets/1/info", PET_TYPE, uploadFile);
+    }
+
+    @Benchmark
+    public File downloadFile(DownloadTarget target) {
+        client.downloadFile("/pets/1/info", target.file.getPath());
+        return target.file;
+    }
+}
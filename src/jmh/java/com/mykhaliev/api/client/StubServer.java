@@ -0,0 +1,71 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process petstore stub for benchmarks, serves canned bodies to keep server cost low.
+ */
+class StubServer {
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    static {
+        //avoid nagle and delayed ack stalls on small responses
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    StubServer(int downloadSize) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        byte[] pet = mapper.writeValueAsBytes(new Response<>(1, new Pet(1L, "pet"), null, null, null));
+        byte[] info = new byte[downloadSize];
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/pets", exchange -> {
+            drain(exchange.getRequestBody());
+            if ("GET".equals(exchange.getRequestMethod()) && exchange.getRequestURI().getPath().endsWith("/info")) {
+                respond(exchange, "application/octet-stream", info);
+            } else {
+                respond(exchange, "application/json", pet);
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) >= 0) {
+            //discard request body
+        }
+        in.close();
+    }
+}
@@ -1,14 +1,28 @@
 package com.mykhaliev.api.client;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.MultipartPart;
 import com.mykhaliev.api.client.model.api.RequestMethod;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.stream.Paginator;
+import com.mykhaliev.api.client.stream.ResponseStream;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Abstract parent for rest client.
  */
-public abstract class AbstractRestClient {
+public abstract class AbstractRestClient implements Closeable {
+
+    private static final String FILE_PART = "file";
 
     /**
      * Get request.
@@ -45,6 +59,59 @@ public abstract class AbstractRestClient {
         return callWithMultipart(RequestMethod.POST, path, responseType, payload);
     }
 
+    /**
+     * Post request.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param payload      file for payload
+     * @return response
+     */
+    public <T> T postFile(String path, TypeReference<T> responseType, Path payload) {
+        return callWithMultipart(RequestMethod.POST, path, responseType,
+                Collections.singletonList(MultipartPart.of(FILE_PART, payload)));
+    }
+
+    /**
+     * Post request, payload of unknown length is streamed chunked without buffering.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param payload      payload stream, closed once written
+     * @param fileName     file name of payload
+     * @return response
+     */
+    public <T> T postFile(String path, TypeReference<T> responseType, InputStream payload, String fileName) {
+        return callWithMultipart(RequestMethod.POST, path, responseType,
+                Collections.singletonList(MultipartPart.of(FILE_PART, fileName, payload)));
+    }
+
+    /**
+     * Post request, payload of unknown length is streamed chunked without buffering.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param payload      payload channel, closed once written
+     * @param fileName     file name of payload
+     * @return response
+     */
+    public <T> T postFile(String path, TypeReference<T> responseType, ReadableByteChannel payload, String fileName) {
+        return callWithMultipart(RequestMethod.POST, path, responseType,
+                Collections.singletonList(MultipartPart.of(FILE_PART, fileName, payload)));
+    }
+
+    /**
+     * Post request with several parts.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param parts        payload parts
+     * @return response
+     */
+    public <T> T postMultipart(String path, TypeReference<T> responseType, List<MultipartPart> parts) {
+        return callWithMultipart(RequestMethod.POST, path, responseType, parts);
+    }
+
     /**
      * Put request.
      *
@@ -79,6 +146,113 @@ public abstract class AbstractRestClient {
 
     }
 
+    /**
+     * Get request for list response, elements of result are parsed lazily.
+     *
+     * @param path        path
+     * @param elementType type of single result element
+     * @return stream over result elements, must be closed if not fully consumed
+     */
+    public <T> ResponseStream<T> getStream(String path, TypeReference<T> elementType) {
+        return streamWithJson(RequestMethod.GET, path, elementType, null);
+    }
+
+    /**
+     * Get request over all pages of list endpoint, pages are requested with limit and skip query parameters.
+     *
+     * @param path     path
+     * @param pageType page response type
+     * @param pageSize page size
+     * @param prefetch max number of pages requested in parallel
+     * @return iterator over elements of all pages
+     */
+    public <T> Paginator<T> getPages(String path, TypeReference<Response<List<T>>> pageType, int pageSize,
+                                     int prefetch) {
+        return new Paginator<>(this, path, pageType, pageSize, prefetch);
+    }
+
+    /**
+     * Async get request.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @return response future
+     */
+    public <T> CompletableFuture<T> getAsync(String path, TypeReference<T> responseType) {
+        return callWithJsonAsync(RequestMethod.GET, path, responseType, null);
+    }
+
+    /**
+     * Async post request.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param payload      payload
+     * @return response future
+     */
+    public <T> CompletableFuture<T> postAsync(String path, TypeReference<T> responseType, Object payload) {
+        return callWithJsonAsync(RequestMethod.POST, path, responseType, payload);
+    }
+
+    /**
+     * Async post file request.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param payload      file for payload
+     * @return response future
+     */
+    public <T> CompletableFuture<T> postFileAsync(String path, TypeReference<T> responseType, File payload) {
+        return callWithMultipartAsync(RequestMethod.POST, path, responseType, payload);
+    }
+
+    /**
+     * Async post request with several parts.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param parts        payload parts
+     * @return response future
+     */
+    public <T> CompletableFuture<T> postMultipartAsync(String path, TypeReference<T> responseType,
+                                                       List<MultipartPart> parts) {
+        return callWithMultipartAsync(RequestMethod.POST, path, responseType, parts);
+    }
+
+    /**
+     * Async put request.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param payload      payload
+     * @return response future
+     */
+    public <T> CompletableFuture<T> putAsync(String path, TypeReference<T> responseType, Object payload) {
+        return callWithJsonAsync(RequestMethod.PUT, path, responseType, payload);
+    }
+
+    /**
+     * Async patch request.
+     *
+     * @param path         path
+     * @param responseType response type
+     * @param payload      payload
+     * @return response future
+     */
+    public <T> CompletableFuture<T> patchAsync(String path, TypeReference<T> responseType, Object payload) {
+        return callWithJsonAsync(RequestMethod.PATCH, path, responseType, payload);
+    }
+
+    /**
+     * Async delete request.
+     *
+     * @param path path
+     * @return response future
+     */
+    public CompletableFuture<Object> deleteAsync(String path) {
+        return callWithJsonAsync(RequestMethod.DELETE, path, null, null);
+    }
+
     /**
      * Generic json request.
      *
@@ -99,7 +273,72 @@ public abstract class AbstractRestClient {
      * @param payload      payload
      * @return response
      */
-    public abstract <T> T callWithMultipart(RequestMethod method, String path, TypeReference<T> responseType, File payload);
+    public <T> T callWithMultipart(RequestMethod method, String path, TypeReference<T> responseType, File payload) {
+        return callWithMultipart(method, path, responseType, Collections.singletonList(filePart(payload)));
+    }
+
+    /**
+     * Generic multipart request with several parts.
+     *
+     * @param method       request method
+     * @param path         path
+     * @param responseType response type
+     * @param parts        payload parts
+     * @return response
+     */
+    public abstract <T> T callWithMultipart(RequestMethod method, String path, TypeReference<T> responseType,
+                                            List<MultipartPart> parts);
+
+    /**
+     * Generic json request for list response, result array is parsed element by element.
+     *
+     * @param method      request method
+     * @param path        path
+     * @param elementType type of single result element
+     * @param payload     payload
+     * @return stream over result elements, must be closed if not fully consumed
+     */
+    public abstract <T> ResponseStream<T> streamWithJson(RequestMethod method, String path,
+                                                         TypeReference<T> elementType, Object payload);
+
+    /**
+     * Generic async json request, executed without blocking the calling thread.
+     *
+     * @param method       request method
+     * @param path         path
+     * @param responseType response type
+     * @param payload      payload
+     * @return response future
+     */
+    public abstract <T> CompletableFuture<T> callWithJsonAsync(RequestMethod method, String path,
+                                                               TypeReference<T> responseType, Object payload);
+
+    /**
+     * Generic async multipart request, executed without blocking the calling thread.
+     *
+     * @param method       request method
+     * @param path         path
+     * @param responseType response type
+     * @param payload      payload
+     * @return response future
+     */
+    public <T> CompletableFuture<T> callWithMultipartAsync(RequestMethod method, String path,
+                                                           TypeReference<T> responseType, File payload) {
+        return callWithMultipartAsync(method, path, responseType, Collections.singletonList(filePart(payload)));
+    }
+
+    /**
+     * Generic async multipart request with several parts, executed without blocking the calling thread.
+     *
+     * @param method       request method
+     * @param path         path
+     * @param responseType response type
+     * @param parts        payload parts
+     * @return response future
+     */
+    public abstract <T> CompletableFuture<T> callWithMultipartAsync(RequestMethod method, String path,
+                                                                    TypeReference<T> responseType,
+                                                                    List<MultipartPart> parts);
 
     /**
      * Downloads file.
@@ -109,4 +348,16 @@ public abstract class AbstractRestClient {
      */
     public abstract void downloadFile(String url, String destinationPath);
 
+    /**
+     * Releases client resources.
+     */
+    @Override
+    public abstract void close();
+
+    private static MultipartPart filePart(File payload) {
+        if (payload == null) {
+            throw new RestApiClientException("File cannot be null.");
+        }
+        return MultipartPart.of(FILE_PART, payload);
+    }
 }
@@ -0,0 +1,464 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.codec.Codec;
+import com.mykhaliev.api.client.codec.CodecNegotiation;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.MultipartPart;
+import com.mykhaliev.api.client.model.api.RequestMethod;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.stream.ResponseStream;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Rest client over HTTP/2. Concurrent calls to a host are multiplexed as streams over a single connection,
+ * https negotiates h2 with ALPN, plain http uses h2c with prior knowledge. Request and response bodies
+ * are buffered, downloads are written to file as they arrive. Without retry count the client keeps default
+ * retries of httpclient5, one immediate retry of dropped idempotent requests and of 429 and 503 responses.
+ */
+public class Http2RestApiClient extends AbstractRestClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Http2RestApiClient.class);
+
+    private final CloseableHttpAsyncClient client;
+
+    private final DefaultHttpRequestRetryStrategy retryStrategy;
+
+    private final TimeValue retryInterval;
+
+    private final ScheduledExecutorService retryScheduler;
+
+    private final CodecNegotiation codecNegotiation;
+
+    private final String baseUrl;
+
+    private final String authorization;
+
+    public Http2RestApiClient(RestApiClientConfig config) {
+        if (config == null) {
+            throw new RestApiClientException("Api client config must be provided.");
+        }
+        if (config.getApiRootUrl() == null) {
+            throw new RestApiClientException("Api root url must be specified.");
+        }
+        if (config.getUsername() == null) {
+            throw new RestApiClientException("Username must be specified.");
+        }
+        if (config.getProxyHost() != null) {
+            throw new RestApiClientException("Proxy is not supported by HTTP/2 client.");
+        }
+        baseUrl = RestApiClient.sanitizeUrl(config.getApiRootUrl());
+
+        //preemptive basic auth, the only scheme used against api root
+        String credentials = config.getUsername() + ":" + (config.getPassword() == null ? "" : config.getPassword());
+        authorization = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+
+        //tls with alpn
+        SSLContext sslContext;
+        try {
+            sslContext = RestApiClient.buildSslContext(config.isVerifySsl(), config.getCaBundle());
+        } catch (Exception e) {
+            throw new RestApiClientException(e);
+        }
+
+        //request config
+        RequestConfig.Builder configBuilder = RequestConfig.custom();
+        if (config.getConnectTimeout() > 0) {
+            configBuilder.setConnectTimeout(Timeout.ofMilliseconds(config.getConnectTimeout()));
+        }
+        if (config.getSocketTimeout() > 0) {
+            configBuilder.setResponseTimeout(Timeout.ofMilliseconds(config.getSocketTimeout()));
+        }
+        if (config.getConnectionRequestTimeout() > 0) {
+            configBuilder.setConnectionRequestTimeout(Timeout.ofMilliseconds(config.getConnectionRequestTimeout()));
+        }
+
+        H2AsyncClientBuilder builder = H2AsyncClientBuilder.create()
+                .setTlsStrategy(ClientTlsStrategyBuilder.create()
+                        .setSslContext(sslContext)
+                        .setHostnameVerifier(RestApiClient.buildHostnameVerifier(config.isVerifySsl(),
+                                config.getCaBundle()))
+                        .build())
+                .setH2Config(H2Config.custom().setPushEnabled(false).build())
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(config.getSocketTimeout()))
+                        .build())
+                .setDefaultRequestConfig(configBuilder.build());
+
+        //retries honour Retry-After of 429 and 503 responses, async client of httpclient5 ignores retry interval
+        //so the retries are scheduled here
+        if (config.getRetryCount() > 0) {
+            retryInterval = TimeValue.ofMilliseconds(RestApiClient.positiveOrDefault(
+                    config.getRetryIntervalMilliseconds(), RestApiClient.DEFAULT_RETRY_INTERVAL_MILLISECONDS));
+            retryStrategy = new DefaultHttpRequestRetryStrategy(config.getRetryCount(), retryInterval);
+            retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rest-api-client-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            builder.disableAutomaticRetries();
+        } else {
+            retryInterval = null;
+            retryStrategy = null;
+            retryScheduler = null;
+        }
+
+        codecNegotiation = new CodecNegotiation(config.getCodecs(), RestApiClient.JSON_CODEC);
+        client = builder.build();
+        client.start();
+    }
+
+    @Override
+    public <T> T callWithJson(RequestMethod method, String path, TypeReference<T> responseType, Object payload) {
+        return await(callWithJsonAsync(method, path, responseType, payload));
+    }
+
+    @Override
+    public <T> T callWithMultipart(RequestMethod method, String path, TypeReference<T> responseType,
+                                   List<MultipartPart> parts) {
+        return await(callWithMultipartAsync(method, path, responseType, parts));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> callWithJsonAsync(RequestMethod method, String path,
+                                                      TypeReference<T> responseType, Object payload) {
+        //add base url
+        String url = baseUrl + path;
+        return execute(createJsonRequest(method, url, payload))
+                .thenApply(response -> parseResponse(url, response, responseType));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> callWithMultipartAsync(RequestMethod method, String path,
+                                                           TypeReference<T> responseType, List<MultipartPart> parts) {
+        if (parts == null || parts.isEmpty()) {
+            throw new RestApiClientException("Parts cannot be empty.");
+        }
+        //add base url
+        String url = baseUrl + path;
+        SimpleHttpRequest request = createRequest(method, url);
+        org.apache.http.HttpEntity entity = RestApiClient.getMultipartPayload(parts);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            entity.writeTo(out);
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        }
+        request.setBody(out.toByteArray(), ContentType.parse(entity.getContentType().getValue()));
+        return execute(request).thenApply(response -> parseResponse(url, response, responseType));
+    }
+
+    @Override
+    public <T> ResponseStream<T> streamWithJson(RequestMethod method, String path, TypeReference<T> elementType,
+                                                Object payload) {
+        //add base url
+        String url = baseUrl + path;
+        SimpleHttpResponse response = await(execute(createJsonRequest(method, url, payload)));
+        parseResponse(url, response, null);
+        //body is already buffered, elements are still parsed one by one
+        Codec codec = codecOf(response);
+        try {
+            JsonParser parser = codec.getMapper().getFactory().createParser(response.getBodyBytes());
+            return new ResponseStream<>(parser, codec.readerFor(elementType), parser);
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        }
+    }
+
+    @Override
+    public void downloadFile(String path, String destinationPath) {
+        //add base url
+        String url = baseUrl + path;
+        Path destination = Paths.get(destinationPath);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try (FileChannel channel = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            execute(createRequest(RequestMethod.GET, url), () -> new FileConsumer(url, channel), 1, result);
+            await(result);
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        } catch (RuntimeException e) {
+            try {
+                Files.deleteIfExists(destination);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close(CloseMode.GRACEFUL);
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+    }
+
+    private SimpleHttpRequest createJsonRequest(RequestMethod method, String url, Object payload) {
+        SimpleHttpRequest request = createRequest(method, url);
+        if (payload != null) {
+            Codec codec = codecNegotiation.getRequestCodec();
+            try {
+                request.setBody(codec.writerFor(payload.getClass()).writeValueAsBytes(payload),
+                        codec.isJson() ? ContentType.APPLICATION_JSON : ContentType.create(codec.getMediaType()));
+            } catch (JsonProcessingException e) {
+                LOGGER.error("Failed to create payload", e);
+                throw new RestApiClientException(e);
+            }
+        }
+        return request;
+    }
+
+    private SimpleHttpRequest createRequest(RequestMethod method, String url) {
+        SimpleHttpRequest request = new SimpleHttpRequest(method.name(), URI.create(url));
+        request.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        request.setHeader(HttpHeaders.ACCEPT, codecNegotiation.getAccept());
+        return request;
+    }
+
+    /**
+     * Executes request with buffered response.
+     *
+     * @param request http request
+     * @return response future, cancelling it resets the stream
+     */
+    private CompletableFuture<SimpleHttpResponse> execute(SimpleHttpRequest request) {
+        CompletableFuture<SimpleHttpResponse> result = new CompletableFuture<>();
+        execute(request, SimpleResponseConsumer::create, 1, result);
+        return result;
+    }
+
+    /**
+     * Executes request attempt, response consumer is created for each attempt.
+     *
+     * @param request         http request
+     * @param consumerFactory response consumer factory
+     * @param executionCount  number of the attempt
+     * @param result          result of all attempts
+     */
+    private <T> void execute(SimpleHttpRequest request, Supplier<AsyncResponseConsumer<T>> consumerFactory,
+                             int executionCount, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            //cancelled while retry was scheduled
+            return;
+        }
+        Future<T> pending = client.execute(SimpleRequestProducer.create(request), consumerFactory.get(),
+                new FutureCallback<T>() {
+                    @Override
+                    public void completed(T response) {
+                        if (!(response instanceof HttpResponse) || !scheduleRetry(request, (HttpResponse) response,
+                                null, consumerFactory, executionCount, result)) {
+                            result.complete(response);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        HttpResponse response = e instanceof UnsuccessfulResponseException
+                                ? ((UnsuccessfulResponseException) e).response : null;
+                        if (scheduleRetry(request, response, e, consumerFactory, executionCount, result)) {
+                            return;
+                        }
+                        LOGGER.error(e.getMessage());
+                        result.completeExceptionally(e instanceof HttpException
+                                ? new RestApiClientException(e.getMessage())
+                                : new RestApiClientException("Failed to execute http request."));
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                });
+        result.whenComplete((response, e) -> {
+            if (result.isCancelled()) {
+                pending.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Schedules next attempt after retry interval, or the one asked for by Retry-After.
+     *
+     * @param response response of the attempt, null if it failed
+     * @param failure  failure of the attempt, null if it was answered
+     * @return true if the attempt is retried
+     */
+    private <T> boolean scheduleRetry(SimpleHttpRequest request, HttpResponse response, Exception failure,
+                                      Supplier<AsyncResponseConsumer<T>> consumerFactory, int executionCount,
+                                      CompletableFuture<T> result) {
+        if (retryStrategy == null || result.isDone()) {
+            return false;
+        }
+        HttpContext context = HttpClientContext.create();
+        TimeValue delay;
+        if (response != null && retryStrategy.retryRequest(response, executionCount, context)) {
+            delay = retryStrategy.getRetryInterval(response, executionCount, context);
+        } else if (failure instanceof IOException
+                && retryStrategy.retryRequest(request, (IOException) failure, executionCount, context)) {
+            delay = retryInterval;
+        } else {
+            return false;
+        }
+        LOGGER.debug("Retrying {} {} in {}", request.getMethod(), request.getRequestUri(), delay);
+        try {
+            retryScheduler.schedule(() -> execute(request, consumerFactory, executionCount + 1, result),
+                    delay.toMilliseconds(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //client closed meanwhile
+            return false;
+        }
+        return true;
+    }
+
+    private <T> T parseResponse(String url, SimpleHttpResponse response, TypeReference<T> responseType) {
+        int statusCode = response.getCode();
+        if (statusCode < 200 || statusCode >= 300) {
+            Response errorResponse = decode(response, RestApiClient.ERROR_RESPONSE_TYPE);
+            throw new RestApiClientException(url, statusCode, errorResponse);
+        }
+        if (responseType == null) {
+            return null;
+        }
+        return decode(response, responseType);
+    }
+
+    private <T> T decode(SimpleHttpResponse response, TypeReference<T> responseType) {
+        byte[] body = response.getBodyBytes();
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            return codecOf(response).readerFor(responseType).readValue(body);
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        }
+    }
+
+    private Codec codecOf(SimpleHttpResponse response) {
+        ContentType contentType = response.getContentType();
+        return codecNegotiation.forContentType(contentType == null ? null : contentType.getMimeType());
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RestApiClientException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RestApiClientException(e.getCause());
+        }
+    }
+
+    /**
+     * Writes response body to file channel as data frames arrive.
+     */
+    private static class FileConsumer extends AbstractBinResponseConsumer<Void> {
+
+        private final String url;
+
+        private final FileChannel channel;
+
+        FileConsumer(String url, FileChannel channel) {
+            this.url = url;
+            this.channel = channel;
+        }
+
+        @Override
+        protected void start(HttpResponse response, ContentType contentType) throws HttpException, IOException {
+            if (response.getCode() < 200 || response.getCode() >= 300) {
+                throw new UnsuccessfulResponseException(url, response);
+            }
+            //file of the previous attempt
+            channel.truncate(0);
+            channel.position(0);
+        }
+
+        @Override
+        protected int capacityIncrement() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        protected void data(ByteBuffer data, boolean endOfStream) throws IOException {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+
+        @Override
+        protected Void buildResult() {
+            return null;
+        }
+
+        @Override
+        public void releaseResources() {
+            //channel is closed once all attempts are done
+        }
+    }
+
+    private static class UnsuccessfulResponseException extends HttpException {
+
+        private final transient HttpResponse response;
+
+        UnsuccessfulResponseException(String url, HttpResponse response) {
+            super("Download of " + url + " failed with status " + response.getCode());
+            this.response = response;
+        }
+    }
+}
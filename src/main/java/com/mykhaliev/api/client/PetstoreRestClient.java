@@ -1,48 +1,84 @@
 package com.mykhaliev.api.client;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.batch.BatchExecutor;
 import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.model.api.BatchItemResult;
 import com.mykhaliev.api.client.model.api.Response;
 import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.stream.Paginator;
+import com.mykhaliev.api.client.stream.ResponseStream;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.InputStream;
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Example of rest client usage.
  */
-public class PetstoreRestClient {
+public class PetstoreRestClient implements Closeable {
 
     public static final String PETS_ROOT_PATH = "/pets";
     public static final String PET_ROOT_PATH = "/pets/{0,number,#}";
     public static final String PET_INFO_PATH = "/pets/{0,number,#}/info";
 
+    public static final int DEFAULT_BATCH_CONCURRENCY = 10;
+
+    //type references are resolved once, readers for them are cached by the client
+    private static final TypeReference<Pet> PET_TYPE = new TypeReference<Pet>() {
+    };
+    private static final TypeReference<Response<Pet>> PET_RESPONSE_TYPE = new TypeReference<Response<Pet>>() {
+    };
+    private static final TypeReference<Response<List<Pet>>> PETS_RESPONSE_TYPE =
+            new TypeReference<Response<List<Pet>>>() {
+            };
+
     private final AbstractRestClient client;
 
+    private final int batchConcurrency;
+
     public PetstoreRestClient(RestApiClientConfig config) {
-        client = new RestApiClient(config);
+        client = config.isHttp2() ? new Http2RestApiClient(config) : new RestApiClient(config);
+        batchConcurrency = config.getBatchConcurrency() > 0 ? config.getBatchConcurrency()
+                : DEFAULT_BATCH_CONCURRENCY;
     }
 
 
     public Response<Pet> getPetById(long id) {
-        return client.get(MessageFormat.format(PET_ROOT_PATH, id), new TypeReference<Response<Pet>>() {
-        });
+        return client.get(MessageFormat.format(PET_ROOT_PATH, id), PET_RESPONSE_TYPE);
+    }
+
+    public List<BatchItemResult<Long, Response<Pet>>> getPetsByIds(Collection<Long> ids) {
+        return BatchExecutor.execute(ids, id -> client.getAsync(MessageFormat.format(PET_ROOT_PATH, id),
+                PET_RESPONSE_TYPE), batchConcurrency).join();
     }
 
     public Response<List<Pet>> getPets(long id) {
-        return client.get(PETS_ROOT_PATH, new TypeReference<Response<List<Pet>>>() {
-        });
+        return client.get(PETS_ROOT_PATH, PETS_RESPONSE_TYPE);
+    }
+
+    public ResponseStream<Pet> streamPets() {
+        return client.getStream(PETS_ROOT_PATH, PET_TYPE);
+    }
+
+    public Paginator<Pet> getAllPets(int pageSize, int prefetch) {
+        return client.getPages(PETS_ROOT_PATH, PETS_RESPONSE_TYPE, pageSize, prefetch);
     }
 
     public Response<Pet> savePet(Pet pet) {
-        return client.post(PETS_ROOT_PATH, new TypeReference<Response<Pet>>() {
-        }, pet);
+        return client.post(PETS_ROOT_PATH, PET_RESPONSE_TYPE, pet);
+    }
+
+    public List<BatchItemResult<Pet, Response<Pet>>> saveAll(List<Pet> pets) {
+        return BatchExecutor.execute(pets, pet -> client.postAsync(PETS_ROOT_PATH, PET_RESPONSE_TYPE, pet),
+                batchConcurrency).join();
     }
 
     public Response<Pet> updatePet(long id, Pet pet) {
-        return client.put(MessageFormat.format(PET_ROOT_PATH, id), new TypeReference<Response<Pet>>() {
-        }, pet);
+        return client.put(MessageFormat.format(PET_ROOT_PATH, id), PET_RESPONSE_TYPE, pet);
     }
 
     public void removePet(long id) {
@@ -50,12 +86,20 @@ public class PetstoreRestClient {
     }
 
     public Response<Pet> uploadPetInfo(long petId, File infoFile) {
-        return client.postFile(MessageFormat.format(PET_INFO_PATH, petId), new TypeReference<Response<Pet>>() {
-        }, infoFile);
+        return client.postFile(MessageFormat.format(PET_INFO_PATH, petId), PET_RESPONSE_TYPE, infoFile);
+    }
+
+    public Response<Pet> uploadPetInfo(long petId, InputStream info, String fileName) {
+        return client.postFile(MessageFormat.format(PET_INFO_PATH, petId), PET_RESPONSE_TYPE, info, fileName);
     }
 
     public void downloadPetInfo(long petId, String destinationPath) {
         client.downloadFile(MessageFormat.format(PET_INFO_PATH, petId), destinationPath);
     }
 
+    @Override
+    public void close() {
+        client.close();
+    }
+
 }
\ No newline at end of file
@@ -1,58 +1,121 @@
 package com.mykhaliev.api.client;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykhaliev.api.client.cache.RequestCoalescer;
+import com.mykhaliev.api.client.cache.ResponseCache;
+import com.mykhaliev.api.client.codec.Codec;
+import com.mykhaliev.api.client.codec.CodecNegotiation;
+import com.mykhaliev.api.client.compression.ContentCompression;
 import com.mykhaliev.api.client.config.CustomProxyRoutePlanner;
-import com.mykhaliev.api.client.config.CustomRetryStrategy;
 import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.connection.InstrumentedConnectionOperator;
+import com.mykhaliev.api.client.connection.InstrumentedConnectionSocketFactory;
+import com.mykhaliev.api.client.concurrent.VirtualThreads;
+import com.mykhaliev.api.client.connection.ConnectionWarmer;
+import com.mykhaliev.api.client.connection.GatedConnectionManager;
+import com.mykhaliev.api.client.connection.IdleConnectionEvictor;
+import com.mykhaliev.api.client.connection.InstrumentedRequestExecutor;
+import com.mykhaliev.api.client.connection.LeakDetectingConnectionManager;
+import com.mykhaliev.api.client.download.FileDownloader;
+import com.mykhaliev.api.client.exception.CallNotPermittedException;
 import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.loadbalancer.Endpoint;
+import com.mykhaliev.api.client.loadbalancer.LoadBalancer;
+import com.mykhaliev.api.client.metrics.CallMetrics;
+import com.mykhaliev.api.client.metrics.MetricsRecorder;
+import com.mykhaliev.api.client.metrics.TimedEntity;
+import com.mykhaliev.api.client.model.api.MultipartPart;
 import com.mykhaliev.api.client.model.api.RequestMethod;
 import com.mykhaliev.api.client.model.api.Response;
-import org.apache.commons.io.FileUtils;
+import com.mykhaliev.api.client.resilience.Bulkhead;
+import com.mykhaliev.api.client.resilience.CircuitBreaker;
+import com.mykhaliev.api.client.resilience.ConcurrencyLimiter;
+import com.mykhaliev.api.client.resilience.HedgingPolicy;
+import com.mykhaliev.api.client.resilience.RetryBudget;
+import com.mykhaliev.api.client.resilience.RetryPolicy;
+import com.mykhaliev.api.client.resilience.RouteGuards;
+import com.mykhaliev.api.client.stream.ResponseStream;
+import com.mykhaliev.api.client.tracing.AttemptTrace;
+import com.mykhaliev.api.client.tracing.CallTrace;
+import com.mykhaliev.api.client.tracing.Span;
+import com.mykhaliev.api.client.tracing.Tracer;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.HttpStatus;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.Credentials;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.AuthCache;
-import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.HttpRoutePlanner;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustStrategy;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.entity.mime.content.FileBody;
+import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.*;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManagerFactory;
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
 import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
@@ -60,6 +123,25 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Example of rest client implementation.
@@ -67,34 +149,108 @@ import java.security.cert.X509Certificate;
 public class RestApiClient extends AbstractRestClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestApiClient.class);
+    private static final ContentType MULTIPART_CONTENT_TYPE = ContentType.create("multipart/form-data");
     private static final ObjectMapper MAPPER = new ObjectMapper()
             .setSerializationInclusion(Include.NON_NULL)
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    static final int DEFAULT_RETRY_INTERVAL_MILLISECONDS = 1000;
+    //paths with ids the route template does not recognize would add guards and metric tags without bound
+    private static final int MAX_ROUTES = 1000;
+    private static final int DEFAULT_WARM_UP_TIMEOUT_MILLISECONDS = 5000;
+    private static final int DEFAULT_EVICTION_INTERVAL_MILLISECONDS = 5000;
+    static final Codec JSON_CODEC = new Codec(Codec.JSON_MEDIA_TYPE, MAPPER);
+    static final TypeReference<Response> ERROR_RESPONSE_TYPE = new TypeReference<Response>() {
+    };
 
     private final CloseableHttpClient client;
 
+    private final CloseableHttpAsyncClient asyncClient;
+
+    private final RetryPolicy retryPolicy;
+
+    private final RouteGuards routeGuards;
+
+    private final HedgingPolicy hedgingPolicy;
+
+    private final long concurrencyLimitQueueNanos;
+
+    private final MetricsRecorder metricsRecorder;
+
+    private final Tracer tracer;
+
+    private final ScheduledExecutorService retryScheduler;
+
+    private final ExecutorService callExecutor;
+
+    private final HttpClientConnectionManager connectionManager;
+
+    private final HttpRoutePlanner routePlanner;
+
+    private final HttpHost apiHost;
+
+    private final LoadBalancer loadBalancer;
+
+    private final Set<String> authorizedEndpoints = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> routes = ConcurrentHashMap.newKeySet();
+
+    private final int poolMaxPerRoute;
+
+    private final int warmUpConnectTimeout;
+
+    private final int warmUpLeaseTimeout;
+
+    private final IdleConnectionEvictor connectionEvictor;
+
+    private final ResponseCache responseCache;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final FileDownloader fileDownloader;
+
+    private final ContentCompression contentCompression;
+
+    private final CodecNegotiation codecNegotiation;
+
     private final String baseUrl;
 
-    private final HttpClientContext clientContext;
+    private final CredentialsProvider credentialsProvider;
+
+    private final AuthCache authCache;
 
     public RestApiClient(RestApiClientConfig config) {
         if (config == null) {
             throw new RestApiClientException("Api client config must be provided.");
         }
-        if (config.getApiRootUrl() == null) {
+        boolean balanced = config.getEndpoints() != null && !config.getEndpoints().isEmpty()
+                || config.getEndpointSupplier() != null;
+        if (config.getApiRootUrl() == null && !balanced) {
             throw new RestApiClientException("Api root url must be specified.");
         }
         if (config.getUsername() == null) {
             throw new RestApiClientException("Username must be specified.");
         }
-        baseUrl = sanitizeUrl(config.getApiRootUrl());
+        //load balancing, api root url only names the api when endpoints are given
+        if (balanced) {
+            loadBalancer = new LoadBalancer(
+                    config.getEndpointSupplier() != null ? config.getEndpointSupplier() : config::getEndpoints,
+                    config.getApiRootUrl(),
+                    config.getLoadBalancingStrategy() != null ? config.getLoadBalancingStrategy()
+                            : LoadBalancer.Strategy.ROUND_ROBIN,
+                    config.getEndpointEjectionFailures(), config.getEndpointEjectionMilliseconds(),
+                    config.getEndpointSupplier() == null ? 0 : config.getEndpointRefreshIntervalMilliseconds());
+        } else {
+            loadBalancer = null;
+        }
+        baseUrl = sanitizeUrl(config.getApiRootUrl() != null ? config.getApiRootUrl()
+                : loadBalancer.getEndpoints().get(0).getUrl());
 
         //auth setup
-        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        credentialsProvider = new BasicCredentialsProvider();
         AuthScope authScope = new AuthScope(AuthScope.ANY);
         Credentials credentials = new UsernamePasswordCredentials(config.getUsername(), config.getPassword());
         credentialsProvider.setCredentials(authScope, credentials);
-        AuthCache authCache = new BasicAuthCache();
+        authCache = new BasicAuthCache();
         HttpHost authHost;
         try {
             URL baseUrlParsed = new URL(baseUrl);
@@ -103,8 +259,11 @@ public class RestApiClient extends AbstractRestClient {
             throw new RestApiClientException("Error finding protocol in api root url, should start with http or https");
         }
         authCache.put(authHost, new BasicScheme());
-        //client builder
+        apiHost = authHost;
+        //client builders
         HttpClientBuilder builder = HttpClientBuilder.create();
+        HttpAsyncClientBuilder asyncBuilder = HttpAsyncClientBuilder.create();
+        HttpRoutePlanner routePlanner = new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE);
 
         //proxy setup
         if (config.getProxyHost() != null) {
@@ -117,8 +276,11 @@ public class RestApiClient extends AbstractRestClient {
 
             HttpHost proxyHost = new HttpHost(proxyUrl.getHost(), config.getProxyPort());
 
-            builder.setRoutePlanner(new CustomProxyRoutePlanner(proxyHost));
+            routePlanner = new CustomProxyRoutePlanner(proxyHost);
+            builder.setRoutePlanner(routePlanner);
             builder.setProxy(proxyHost);
+            asyncBuilder.setRoutePlanner(new CustomProxyRoutePlanner(proxyHost));
+            asyncBuilder.setProxy(proxyHost);
 
             if (config.getProxyUser() != null) {
                 Credentials proxyCredentials = new UsernamePasswordCredentials(config.getProxyUser(),
@@ -126,33 +288,88 @@ public class RestApiClient extends AbstractRestClient {
                 AuthScope proxyScope = new AuthScope(proxyUrl.getHost(), config.getProxyPort());
                 credentialsProvider.setCredentials(proxyScope, proxyCredentials);
                 builder.setProxyAuthenticationStrategy(new ProxyAuthenticationStrategy());
+                asyncBuilder.setProxyAuthenticationStrategy(new ProxyAuthenticationStrategy());
             }
         }
 
-        clientContext = HttpClientContext.create();
-        clientContext.setCredentialsProvider(credentialsProvider);
-        clientContext.setAuthCache(authCache);
-
         //ssl factory
-        SSLConnectionSocketFactory sslFactory;
+        SSLContext sslContext;
         try {
-            sslFactory = buildSslFactory(config.isVerifySsl(), config.getCaBundle());
+            sslContext = buildSslContext(config.isVerifySsl(), config.getCaBundle());
         } catch (Exception e) {
             throw new RestApiClientException(e);
         }
+        HostnameVerifier hostnameVerifier = buildHostnameVerifier(config.isVerifySsl(), config.getCaBundle());
+        SSLConnectionSocketFactory sslFactory = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
+
+        //metrics and tracing, connection phases are instrumented by connection internals
+        metricsRecorder = config.getMetricsRecorder() == MetricsRecorder.NOOP ? null : config.getMetricsRecorder();
+        tracer = config.getTracer() == Tracer.NOOP ? null : config.getTracer();
+        ConnectionSocketFactory plainFactory = PlainConnectionSocketFactory.getSocketFactory();
+        ConnectionSocketFactory tlsFactory = sslFactory;
+        if (metricsRecorder != null || tracer != null) {
+            plainFactory = InstrumentedConnectionSocketFactory.of(plainFactory);
+            tlsFactory = InstrumentedConnectionSocketFactory.of(tlsFactory);
+            builder.setRequestExecutor(new InstrumentedRequestExecutor());
+            asyncBuilder.addInterceptorLast((HttpRequestInterceptor) (request, context) -> {
+                CallMetrics metrics = CallMetrics.of(context);
+                if (metrics != null) {
+                    metrics.onRequestStart();
+                }
+            });
+            asyncBuilder.addInterceptorFirst((HttpResponseInterceptor) (response, context) -> {
+                CallMetrics metrics = CallMetrics.of(context);
+                if (metrics != null) {
+                    metrics.onResponseStart();
+                }
+                AttemptTrace trace = AttemptTrace.of(context);
+                if (trace != null) {
+                    trace.getSpan().addEvent("response headers");
+                }
+            });
+        }
 
         //connection managers
-        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(RegistryBuilder
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder
                 .<ConnectionSocketFactory>create()
-                .register("http", PlainConnectionSocketFactory.getSocketFactory())
-                .register("https", sslFactory).build());
+                .register("http", plainFactory)
+                .register("https", tlsFactory).build();
+        long timeToLive = config.getConnectionTimeToLiveMilliseconds() > 0
+                ? config.getConnectionTimeToLiveMilliseconds() : -1;
+        PoolingHttpClientConnectionManager manager = tracer == null
+                ? new PoolingHttpClientConnectionManager(socketFactoryRegistry, null, null, null, timeToLive,
+                TimeUnit.MILLISECONDS)
+                : new PoolingHttpClientConnectionManager(new InstrumentedConnectionOperator(socketFactoryRegistry),
+                null, timeToLive, TimeUnit.MILLISECONDS);
 
-        if (config.getPoolMaxPerRoute() > 0) {
-            manager.setDefaultMaxPerRoute(config.getPoolMaxPerRoute());
+        if (poolLimit(config.getPoolMaxPerRoute(), config) > 0) {
+            manager.setDefaultMaxPerRoute(poolLimit(config.getPoolMaxPerRoute(), config));
         }
-        if (config.getPoolMaxTotal() > 0) {
-            manager.setMaxTotal(config.getPoolMaxTotal());
+        if (poolLimit(config.getPoolMaxTotal(), config) > 0) {
+            manager.setMaxTotal(poolLimit(config.getPoolMaxTotal(), config));
         }
+        //pool default is 2 s, negative disables the check
+        if (config.getValidateAfterInactivityMilliseconds() != 0) {
+            manager.setValidateAfterInactivity(config.getValidateAfterInactivityMilliseconds());
+        }
+        HttpClientConnectionManager connectionManager = manager;
+        if (config.getLeakDetectionThresholdMilliseconds() > 0) {
+            connectionManager = new LeakDetectingConnectionManager(connectionManager,
+                    config.getLeakDetectionThresholdMilliseconds());
+        }
+        if (config.isVirtualThreads()) {
+            //pool lease pins virtual threads, callers wait for a free slot before entering the pool
+            connectionManager = new GatedConnectionManager(connectionManager, manager::getMaxPerRoute,
+                    manager.getMaxTotal());
+        }
+        builder.setConnectionManager(connectionManager);
+        this.connectionManager = connectionManager;
+        this.routePlanner = routePlanner;
+        poolMaxPerRoute = manager.getDefaultMaxPerRoute();
+        //warm up blocks the caller, it never waits without bound
+        warmUpConnectTimeout = positiveOrDefault(config.getConnectTimeout(), DEFAULT_WARM_UP_TIMEOUT_MILLISECONDS);
+        warmUpLeaseTimeout = positiveOrDefault(config.getConnectionRequestTimeout(),
+                DEFAULT_WARM_UP_TIMEOUT_MILLISECONDS);
 
         //request config
         RequestConfig.Builder configBuilder = RequestConfig.custom();
@@ -166,14 +383,119 @@ public class RestApiClient extends AbstractRestClient {
             configBuilder.setConnectionRequestTimeout(config.getConnectionRequestTimeout());
         }
 
-        builder.setDefaultRequestConfig(configBuilder.build());
+        RequestConfig requestConfig = configBuilder.build();
+        builder.setDefaultRequestConfig(requestConfig);
+        asyncBuilder.setDefaultRequestConfig(requestConfig);
+
+        //body formats
+        codecNegotiation = new CodecNegotiation(config.getCodecs(), JSON_CODEC);
 
-        //retry strategy
+        //content encoding
+        contentCompression = new ContentCompression(config.getAcceptEncoding(), config.getContentDecoders(),
+                config.getRequestCompressionThresholdBytes());
+        contentCompression.configure(builder);
+        contentCompression.configure(asyncBuilder);
+
+        //retries are done by the client itself, so the async path can schedule them without blocking,
+        //without retry count apache client keeps its own retries of dropped idempotent requests
         if (config.getRetryCount() > 0) {
-            builder.setServiceUnavailableRetryStrategy(
-                    new CustomRetryStrategy(config.getRetryCount(), config.getRetryIntervalMilliseconds()));
+            RetryBudget retryBudget = config.getRetryBudgetPercent() < 0 ? null : new RetryBudget(
+                    config.getRetryBudgetPercent(), config.getRetryBudgetMinPerSecond());
+            retryPolicy = new RetryPolicy(config.getRetryCount(),
+                    positiveOrDefault(config.getRetryIntervalMilliseconds(), DEFAULT_RETRY_INTERVAL_MILLISECONDS),
+                    config.getRetryMaxIntervalMilliseconds(), config.getRetryStatusCodes(),
+                    config.getRetryExceptions(), retryBudget);
+            builder.disableAutomaticRetries();
+        } else {
+            retryPolicy = null;
+        }
+        //circuit breakers, bulkheads and concurrency limiters per route
+        Function<String, CircuitBreaker> circuitBreakerFactory = null;
+        if (config.getCircuitBreakerFailureRateThreshold() > 0) {
+            circuitBreakerFactory = route -> new CircuitBreaker(route, config.getCircuitBreakerFailureRateThreshold(),
+                    config.getCircuitBreakerSlowCallRateThreshold(),
+                    config.getCircuitBreakerSlowCallDurationMilliseconds(), config.getCircuitBreakerWindowSize(),
+                    config.getCircuitBreakerMinimumCalls(), config.getCircuitBreakerOpenDurationMilliseconds(),
+                    config.getCircuitBreakerHalfOpenCalls(), config.getCircuitBreakerListener());
+        }
+        Function<String, ConcurrencyLimiter> concurrencyLimiterFactory = null;
+        if (config.getConcurrencyLimitAlgorithm() != null) {
+            concurrencyLimiterFactory = route -> new ConcurrencyLimiter(route, config.getConcurrencyLimitAlgorithm(),
+                    config.getConcurrencyLimitInitial(), config.getConcurrencyLimitMin(),
+                    config.getConcurrencyLimitMax(),
+                    config.getConcurrencyLimitLatencyThresholdMilliseconds());
         }
+        concurrencyLimitQueueNanos = TimeUnit.MILLISECONDS.toNanos(config.getConcurrencyLimitQueueMilliseconds());
+        routeGuards = circuitBreakerFactory == null && config.getBulkheadMaxConcurrentCalls() <= 0
+                && concurrencyLimiterFactory == null ? null
+                : new RouteGuards(circuitBreakerFactory, config.getBulkheadMaxConcurrentCalls(),
+                concurrencyLimiterFactory);
+        //hedged attempts for slow reads
+        if (config.isHedging()) {
+            RetryBudget hedgingBudget = config.getHedgingBudgetPercent() < 0 ? null : new RetryBudget(
+                    config.getHedgingBudgetPercent(), config.getHedgingBudgetMinPerSecond());
+            hedgingPolicy = new HedgingPolicy(config.getHedgingDelayMilliseconds(),
+                    config.getHedgingLatencyPercentile(), hedgingBudget);
+        } else {
+            hedgingPolicy = null;
+        }
+
         client = builder.build();
+        fileDownloader = new FileDownloader(client, this::createContext, config.getDownloadResumeAttempts(),
+                config.getDownloadSegments());
+
+        //response cache
+        if (config.getCacheMaxEntries() > 0) {
+            responseCache = new ResponseCache(config.getCacheMaxEntries(), config.getCacheMaxBytes(),
+                    config.getCacheTtlMilliseconds());
+        } else {
+            responseCache = null;
+        }
+
+        //single flight for identical concurrent requests
+        requestCoalescer = config.isRequestCoalescing() ? new RequestCoalescer() : null;
+
+        //async client, io reactor is started on first async call
+        PoolingNHttpClientConnectionManager asyncManager = buildAsyncConnectionManager(config, sslContext,
+                hostnameVerifier);
+        asyncBuilder.setConnectionManager(asyncManager);
+        asyncClient = asyncBuilder.build();
+        if (metricsRecorder != null) {
+            metricsRecorder.registerGauge("pool.leased", "sync", () -> manager.getTotalStats().getLeased());
+            metricsRecorder.registerGauge("pool.available", "sync", () -> manager.getTotalStats().getAvailable());
+            metricsRecorder.registerGauge("pool.pending", "sync", () -> manager.getTotalStats().getPending());
+            metricsRecorder.registerGauge("pool.leased", "async", () -> asyncManager.getTotalStats().getLeased());
+            metricsRecorder.registerGauge("pool.available", "async",
+                    () -> asyncManager.getTotalStats().getAvailable());
+            metricsRecorder.registerGauge("pool.pending", "async", () -> asyncManager.getTotalStats().getPending());
+        }
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rest-api-client-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //async calls become blocking calls on virtual threads, io reactor is left for hedging
+        if (config.isVirtualThreads() && VirtualThreads.isSupported()) {
+            callExecutor = VirtualThreads.newExecutor("rest-api-client-call-");
+        } else {
+            if (config.isVirtualThreads()) {
+                LOGGER.warn("Virtual threads are not supported by this jvm, async calls stay on io reactor.");
+            }
+            callExecutor = null;
+        }
+
+        //pool maintenance
+        if (config.getIdleConnectionTimeoutMilliseconds() > 0 || config.getConnectionTimeToLiveMilliseconds() > 0) {
+            connectionEvictor = new IdleConnectionEvictor(manager, asyncManager,
+                    config.getIdleConnectionTimeoutMilliseconds(),
+                    positiveOrDefault(config.getIdleConnectionEvictionIntervalMilliseconds(),
+                            DEFAULT_EVICTION_INTERVAL_MILLISECONDS));
+        } else {
+            connectionEvictor = null;
+        }
+        if (config.getPoolWarmUpConnections() > 0) {
+            warmUp(config.getPoolWarmUpConnections());
+        }
     }
 
 
@@ -182,35 +504,105 @@ public class RestApiClient extends AbstractRestClient {
         //add base url
         path = baseUrl + path;
 
-        HttpUriRequest request = getHttpRequest(method, path, getJsonPayload(payload));
-        request.setHeader("Content-Type", "application/json");
-        request.setHeader("Accept", "application/json");
+        HttpUriRequest request = getHttpRequest(method, path, contentCompression.compress(getPayload(payload)));
+        request.setHeader("Content-Type", codecNegotiation.getRequestCodec().getMediaType());
+        request.setHeader("Accept", codecNegotiation.getAccept());
         return executeAndParseResponse(path, request, responseType);
     }
 
     @Override
-    public <T> T callWithMultipart(RequestMethod method, String path, TypeReference<T> responseType, File payload) {
-        if (payload == null) {
-            throw new RestApiClientException("File cannot be null.");
+    public <T> T callWithMultipart(RequestMethod method, String path, TypeReference<T> responseType,
+                                   List<MultipartPart> parts) {
+        if (parts == null || parts.isEmpty()) {
+            throw new RestApiClientException("Parts cannot be empty.");
         }
         //add base url
         path = baseUrl + path;
-        HttpUriRequest request = getHttpRequest(method, path, getMultipartPayload(payload));
+        HttpUriRequest request = getHttpRequest(method, path, getMultipartPayload(parts));
 
-        request.setHeader("Accept", "application/json");
+        request.setHeader("Accept", codecNegotiation.getAccept());
         return executeAndParseResponse(path, request, responseType);
     }
 
+    @Override
+    public <T> CompletableFuture<T> callWithJsonAsync(RequestMethod method, String path, TypeReference<T> responseType,
+                                                      Object payload) {
+        //add base url
+        path = baseUrl + path;
+
+        HttpUriRequest request = getHttpRequest(method, path, contentCompression.compress(getPayload(payload)));
+        request.setHeader("Content-Type", codecNegotiation.getRequestCodec().getMediaType());
+        request.setHeader("Accept", codecNegotiation.getAccept());
+        return executeAndParseResponseAsync(path, request, responseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> callWithMultipartAsync(RequestMethod method, String path,
+                                                           TypeReference<T> responseType, List<MultipartPart> parts) {
+        if (parts == null || parts.isEmpty()) {
+            throw new RestApiClientException("Parts cannot be empty.");
+        }
+        //add base url
+        path = baseUrl + path;
+        HttpUriRequest request = getHttpRequest(method, path, getBufferedPayload(getMultipartPayload(parts)));
+
+        request.setHeader("Accept", codecNegotiation.getAccept());
+        return executeAndParseResponseAsync(path, request, responseType);
+    }
+
+    @Override
+    public <T> ResponseStream<T> streamWithJson(RequestMethod method, String path, TypeReference<T> elementType,
+                                                Object payload) {
+        //add base url
+        path = baseUrl + path;
+
+        HttpUriRequest request = getHttpRequest(method, path, contentCompression.compress(getPayload(payload)));
+        request.setHeader("Content-Type", codecNegotiation.getRequestCodec().getMediaType());
+        request.setHeader("Accept", codecNegotiation.getAccept());
+        //stream trace ends once the stream is opened
+        String route = routeOf(request);
+        CallTrace trace = callTrace(request, route);
+        CloseableHttpResponse response;
+        try {
+            response = execute(request, route, callMetrics(request, route), trace);
+        } catch (RuntimeException e) {
+            endTrace(trace, e);
+            throw e;
+        }
+        try {
+            handleErrorResponse(path, response);
+            Codec codec = codecNegotiation.forContentType(contentTypeOf(response.getEntity()));
+            JsonParser parser = codec.getMapper().getFactory().createParser(response.getEntity().getContent());
+            endTrace(trace, null);
+            return new ResponseStream<>(parser, codec.readerFor(elementType), response);
+        } catch (IOException e) {
+            closeQuietly(response);
+            endTrace(trace, e);
+            throw new RestApiClientException(e);
+        } catch (RuntimeException e) {
+            closeQuietly(response);
+            endTrace(trace, e);
+            throw e;
+        }
+    }
+
     @Override
     public void downloadFile(String path, String destinationPath) {
+        //add base url
+        path = baseUrl + path;
+        if (loadBalancer == null) {
+            fileDownloader.download(path, Paths.get(destinationPath));
+            return;
+        }
+        //download with its resumes and segments stays on one endpoint, its duration says nothing of latency
+        Endpoint endpoint = selectEndpoint();
         try {
-            //add base url
-            path = baseUrl + path;
-            HttpGet get = new HttpGet(path);
-            File file = new File(destinationPath);
-            client.execute(get, new FileDownloadResponseHandler(file), clientContext);
-        } catch (Exception e) {
+            fileDownloader.download(URIUtils.rewriteURI(URI.create(path), endpoint.getHost()).toString(),
+                    Paths.get(destinationPath));
+        } catch (URISyntaxException e) {
             throw new RestApiClientException(e);
+        } finally {
+            loadBalancer.release(endpoint);
         }
     }
 
@@ -222,35 +614,832 @@ public class RestApiClient extends AbstractRestClient {
      * @param responseType jackson type to deserialize response.
      * @return parsed response.
      */
+    @SuppressWarnings("unchecked")
     private <T> T executeAndParseResponse(String path, HttpUriRequest request, TypeReference<T> responseType) {
-        HttpResponse response;
+        ResponseCache.Entry cached = lookupCache(path, request, responseType);
+        if (cached != null && cached.isFresh()) {
+            return (T) cached.getValue();
+        }
+        if (isCoalescable(request)) {
+            return requestCoalescer.execute(request.getMethod(), path, typeOf(responseType),
+                    () -> executeAndParseResponse(path, request, responseType, cached));
+        }
+        return executeAndParseResponse(path, request, responseType, cached);
+    }
+
+    private <T> T executeAndParseResponse(String path, HttpUriRequest request, TypeReference<T> responseType,
+                                          ResponseCache.Entry cached) {
+        String route = routeOf(request);
+        Bulkhead bulkhead = acquireBulkhead(route);
+        CallMetrics metrics = callMetrics(request, route);
+        CallTrace trace = callTrace(request, route);
+        long start = System.nanoTime();
+        Throwable error = null;
         try {
-            response = client.execute(request, clientContext);
-        } catch (IOException e) {
-            LOGGER.error(e.getMessage());
-            throw new RestApiClientException("Failed to execute http request.");
+            if (isHedgeable(request)) {
+                //attempts run on the async client, calling thread only waits for the winner
+                HttpResponse response = await(executeAsync(request, route, metrics, trace));
+                try {
+                    return parseAndCacheResponse(path, request, response, responseType, cached, metrics, trace);
+                } finally {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                }
+            }
+            CloseableHttpResponse response = execute(request, route, metrics, trace);
+            try {
+                return parseAndCacheResponse(path, request, response, responseType, cached, metrics, trace);
+            } finally {
+                //consumed entity lets the connection be reused, close covers everything else
+                EntityUtils.consumeQuietly(response.getEntity());
+                closeQuietly(response);
+            }
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (metrics != null) {
+                metrics.recordTime(MetricsRecorder.Phase.TOTAL, System.nanoTime() - start);
+            }
+            endTrace(trace, error);
         }
-        int statusCode = response.getStatusLine().getStatusCode();
-        //handle error response
-        if (statusCode < 200 || statusCode >= 300) {
-            Response errorResponse;
+    }
+
+    /**
+     * Executes request, retrying it according to retry policy. Calling thread waits for retry delay,
+     * connection of failed attempt is released before that.
+     *
+     * @param request Apache http request
+     * @param route   route of request, null if no feature needs it
+     * @param metrics call metrics, null if disabled
+     * @param trace   call trace, null if disabled
+     * @return response, must be closed
+     */
+    private CloseableHttpResponse execute(HttpUriRequest request, String route, CallMetrics metrics,
+                                          CallTrace trace) {
+        if (retryPolicy != null) {
+            retryPolicy.onRequest();
+        }
+        if (metrics != null) {
+            metrics.recordRequestSize(contentLengthOf(request));
+        }
+        CircuitBreaker circuitBreaker = circuitBreakerOf(route);
+        ConcurrencyLimiter limiter = concurrencyLimiterOf(route);
+        for (int executionCount = 1; ; executionCount++) {
+            if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+                throw new CallNotPermittedException("Circuit breaker is open for route " + circuitBreaker.getRoute());
+            }
+            acquireConcurrencyLimit(limiter, circuitBreaker);
+            long start = System.nanoTime();
+            long delay;
+            AttemptTrace attempt = trace == null ? null : trace.startAttempt(request, executionCount);
+            Endpoint endpoint = null;
             try {
-                errorResponse = fromJson(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8),
-                        new TypeReference<Response>() {
-                        });
-                throw new RestApiClientException(path, statusCode, errorResponse);
+                CloseableHttpResponse response;
+                try {
+                    //every attempt picks its endpoint, retries may go elsewhere
+                    endpoint = selectEndpoint(request);
+                    response = client.execute(request, createContext(metrics, attempt));
+                } catch (RuntimeException e) {
+                    if (circuitBreaker != null) {
+                        circuitBreaker.releasePermission();
+                    }
+                    if (limiter != null) {
+                        limiter.release();
+                    }
+                    if (endpoint != null) {
+                        loadBalancer.release(endpoint);
+                    }
+                    endAttempt(attempt, 0, e);
+                    throw e;
+                }
+                if (circuitBreaker != null) {
+                    circuitBreaker.onResult(isFailure(response), System.nanoTime() - start);
+                }
+                if (limiter != null) {
+                    limiter.onResult(isFailure(response), System.nanoTime() - start);
+                }
+                if (endpoint != null) {
+                    loadBalancer.onResult(endpoint, isFailure(response), System.nanoTime() - start);
+                }
+                if (metrics != null) {
+                    metrics.recordStatus(response.getStatusLine().getStatusCode());
+                }
+                endAttempt(attempt, response.getStatusLine().getStatusCode(), null);
+                delay = retryPolicy == null ? -1 : retryPolicy.retryDelay(request, response, executionCount);
+                if (delay < 0) {
+                    return response;
+                }
+                LOGGER.warn("Retrying {} {} after status {} in {} ms", request.getMethod(), request.getURI(),
+                        response.getStatusLine().getStatusCode(), delay);
+                EntityUtils.consumeQuietly(response.getEntity());
+                closeQuietly(response);
             } catch (IOException e) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onResult(true, System.nanoTime() - start);
+                }
+                if (limiter != null) {
+                    limiter.onResult(true, System.nanoTime() - start);
+                }
+                if (endpoint != null) {
+                    loadBalancer.onResult(endpoint, true, System.nanoTime() - start);
+                }
+                endAttempt(attempt, 0, e);
+                delay = retryPolicy == null ? -1 : retryPolicy.retryDelay(request, e, executionCount);
+                if (delay < 0) {
+                    LOGGER.error(e.getMessage());
+                    throw new RestApiClientException("Failed to execute http request.");
+                }
+                LOGGER.warn("Retrying {} {} after {} in {} ms", request.getMethod(), request.getURI(), e, delay);
+            }
+            if (metrics != null) {
+                metrics.recordRetry();
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 throw new RestApiClientException(e);
             }
         }
-        //handle successful response
+    }
+
+    /**
+     * Async http request handler.
+     *
+     * @param path         url path
+     * @param request      Apache http request
+     * @param responseType jackson type to deserialize response.
+     * @return parsed response future, cancelling it aborts the request.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> executeAndParseResponseAsync(String path, HttpUriRequest request,
+                                                                  TypeReference<T> responseType) {
+        if (callExecutor != null) {
+            CompletableFuture<T> result = CompletableFuture.supplyAsync(
+                    () -> executeAndParseResponse(path, request, responseType), callExecutor);
+            result.whenComplete((response, e) -> {
+                if (result.isCancelled()) {
+                    request.abort();
+                }
+            });
+            return result;
+        }
+        ResponseCache.Entry cached = lookupCache(path, request, responseType);
+        if (cached != null && cached.isFresh()) {
+            return CompletableFuture.completedFuture((T) cached.getValue());
+        }
+        if (isCoalescable(request)) {
+            return requestCoalescer.executeAsync(request.getMethod(), path, typeOf(responseType),
+                    () -> executeAndParseResponseAsync(path, request, responseType, cached));
+        }
+        return executeAndParseResponseAsync(path, request, responseType, cached);
+    }
+
+    private <T> CompletableFuture<T> executeAndParseResponseAsync(String path, HttpUriRequest request,
+                                                                  TypeReference<T> responseType,
+                                                                  ResponseCache.Entry cached) {
+        String route = routeOf(request);
+        Bulkhead bulkhead;
         try {
-            if (responseType == null) {
-                return null;
+            bulkhead = acquireBulkhead(route);
+        } catch (CallNotPermittedException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+        CallMetrics metrics = callMetrics(request, route);
+        CallTrace trace = callTrace(request, route);
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse> execution = executeAsync(request, route, metrics, trace);
+        CompletableFuture<T> result = execution.thenApply(response ->
+                parseAndCacheResponse(path, request, response, responseType, cached, metrics, trace));
+        result.whenComplete((response, e) -> {
+            if (result.isCancelled()) {
+                execution.cancel(true);
             }
-            return fromJson(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8), responseType);
-        } catch (IOException e) {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (metrics != null) {
+                metrics.recordTime(MetricsRecorder.Phase.TOTAL, System.nanoTime() - start);
+            }
+            endTrace(trace, e instanceof CompletionException ? e.getCause() : e);
+        });
+        return result;
+    }
+
+    /**
+     * Starts request on io reactor, hedging it if allowed.
+     *
+     * @param request Apache http request
+     * @param route   route of request, null if no feature needs it
+     * @param metrics call metrics, null if disabled
+     * @param trace   call trace, null if disabled
+     * @return response future, cancelling it aborts the request
+     */
+    private CompletableFuture<HttpResponse> executeAsync(HttpUriRequest request, String route, CallMetrics metrics,
+                                                         CallTrace trace) {
+        asyncClient.start();
+        if (retryPolicy != null) {
+            retryPolicy.onRequest();
+        }
+        if (metrics != null) {
+            metrics.recordRequestSize(contentLengthOf(request));
+        }
+        CompletableFuture<HttpResponse> execution = new CompletableFuture<>();
+        if (isHedgeable(request)) {
+            executeHedged(request, route, execution, metrics, trace);
+        } else {
+            executeAsync(request, route, 1, execution, metrics, trace);
+        }
+        return execution;
+    }
+
+    /**
+     * Sends hedge attempt once the first one has not answered within hedge delay. First response wins,
+     * the other attempt is aborted, failure is reported only when no attempt is left. Latency is taken
+     * from the start of the call whichever attempt wins, so hedging does not lower the delay it is based on.
+     *
+     * @param request   Apache http request, idempotent
+     * @param route     route of request
+     * @param execution future to complete with response
+     * @param metrics   call metrics, null if disabled
+     * @param trace     call trace, null if disabled
+     */
+    private void executeHedged(HttpUriRequest request, String route, CompletableFuture<HttpResponse> execution,
+                               CallMetrics metrics, CallTrace trace) {
+        hedgingPolicy.onRequest();
+        long start = System.nanoTime();
+        execution.whenComplete((response, e) -> {
+            if (e == null) {
+                hedgingPolicy.onLatency(route, System.nanoTime() - start);
+            }
+        });
+        AtomicInteger outstanding = new AtomicInteger(1);
+        executeAttempt(request, route, outstanding, execution, metrics, trace);
+        long delay = hedgingPolicy.hedgeDelay(route);
+        if (delay < 0) {
+            return;
+        }
+        ScheduledFuture<?> hedge;
+        try {
+            hedge = retryScheduler.schedule(() -> {
+                if (execution.isDone() || !hedgingPolicy.tryHedge()
+                        || outstanding.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0) {
+                    return;
+                }
+                LOGGER.debug("Hedging {} {} after {} ms", request.getMethod(), request.getURI(), delay);
+                executeAttempt(copyOf(request), route, outstanding, execution, metrics, trace);
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //client closed meanwhile, first attempt carries on
+            return;
+        }
+        execution.whenComplete((response, e) -> hedge.cancel(false));
+    }
+
+    private void executeAttempt(HttpUriRequest request, String route, AtomicInteger outstanding,
+                                CompletableFuture<HttpResponse> execution, CallMetrics metrics,
+                                CallTrace trace) {
+        CompletableFuture<HttpResponse> attempt = new CompletableFuture<>();
+        executeAsync(request, route, 1, attempt, metrics, trace);
+        attempt.whenComplete((response, e) -> {
+            if (e == null) {
+                if (!execution.complete(response)) {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                execution.completeExceptionally(e);
+            }
+        });
+        //losing attempt is aborted
+        execution.whenComplete((response, e) -> attempt.cancel(true));
+    }
+
+    /**
+     * Executes request on io reactor, retries are scheduled instead of blocking a thread.
+     *
+     * @param request        Apache http request
+     * @param route          route of request, null if no feature needs it
+     * @param executionCount execution attempt, starting with 1
+     * @param execution      future to complete with response
+     * @param metrics        call metrics, null if disabled
+     * @param trace          call trace, null if disabled
+     */
+    private void executeAsync(HttpUriRequest request, String route, int executionCount,
+                              CompletableFuture<HttpResponse> execution, CallMetrics metrics, CallTrace trace) {
+        if (execution.isDone()) {
+            return;
+        }
+        CircuitBreaker circuitBreaker = circuitBreakerOf(route);
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            execution.completeExceptionally(
+                    new CallNotPermittedException("Circuit breaker is open for route " + circuitBreaker.getRoute()));
+            return;
+        }
+        //io reactor callers are never blocked, attempts over the limit are rejected right away
+        ConcurrencyLimiter limiter = concurrencyLimiterOf(route);
+        if (limiter != null && !limiter.tryAcquire()) {
+            if (circuitBreaker != null) {
+                circuitBreaker.releasePermission();
+            }
+            execution.completeExceptionally(
+                    new CallNotPermittedException("Concurrency limit reached for route " + limiter.getRoute()));
+            return;
+        }
+        long start = System.nanoTime();
+        AttemptTrace attempt = trace == null ? null : trace.startAttempt(request, executionCount);
+        HttpClientContext context = createContext(metrics, attempt);
+        Endpoint endpoint;
+        try {
+            endpoint = selectEndpoint(request);
+        } catch (RestApiClientException e) {
+            if (circuitBreaker != null) {
+                circuitBreaker.releasePermission();
+            }
+            if (limiter != null) {
+                limiter.release();
+            }
+            endAttempt(attempt, 0, e);
+            execution.completeExceptionally(e);
+            return;
+        }
+        Future<HttpResponse> pending = asyncClient.execute(request, context, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onResult(isFailure(response), System.nanoTime() - start);
+                }
+                if (limiter != null) {
+                    limiter.onResult(isFailure(response), System.nanoTime() - start);
+                }
+                if (endpoint != null) {
+                    loadBalancer.onResult(endpoint, isFailure(response), System.nanoTime() - start);
+                }
+                if (metrics != null) {
+                    metrics.recordStatus(response.getStatusLine().getStatusCode());
+                }
+                endAttempt(attempt, response.getStatusLine().getStatusCode(), null);
+                try {
+                    contentCompression.decompress(response);
+                } catch (RestApiClientException e) {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    execution.completeExceptionally(e);
+                    return;
+                }
+                long delay = retryPolicy == null || execution.isDone() ? -1
+                        : retryPolicy.retryDelay(request, response, executionCount);
+                if (delay >= 0) {
+                    LOGGER.warn("Retrying {} {} after status {} in {} ms", request.getMethod(), request.getURI(),
+                            response.getStatusLine().getStatusCode(), delay);
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    scheduleRetry(request, route, executionCount, execution, delay, metrics, trace);
+                } else {
+                    execution.complete(response);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onResult(true, System.nanoTime() - start);
+                }
+                if (limiter != null) {
+                    limiter.onResult(true, System.nanoTime() - start);
+                }
+                if (endpoint != null) {
+                    loadBalancer.onResult(endpoint, true, System.nanoTime() - start);
+                }
+                endAttempt(attempt, 0, e);
+                long delay = retryPolicy == null || execution.isDone() ? -1
+                        : retryPolicy.retryDelay(request, e, executionCount);
+                if (delay >= 0) {
+                    LOGGER.warn("Retrying {} {} after {} in {} ms", request.getMethod(), request.getURI(), e, delay);
+                    scheduleRetry(request, route, executionCount, execution, delay, metrics, trace);
+                } else {
+                    LOGGER.error(e.getMessage());
+                    execution.completeExceptionally(new RestApiClientException("Failed to execute http request."));
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                if (circuitBreaker != null) {
+                    circuitBreaker.releasePermission();
+                }
+                if (limiter != null) {
+                    limiter.release();
+                }
+                if (endpoint != null) {
+                    loadBalancer.release(endpoint);
+                }
+                endAttempt(attempt, 0, null);
+                execution.cancel(false);
+            }
+        });
+        execution.whenComplete((response, e) -> {
+            if (execution.isCancelled()) {
+                pending.cancel(true);
+            }
+        });
+    }
+
+    private void scheduleRetry(HttpUriRequest request, String route, int executionCount,
+                               CompletableFuture<HttpResponse> execution, long delay, CallMetrics metrics,
+                               CallTrace trace) {
+        if (metrics != null) {
+            metrics.recordRetry();
+        }
+        try {
+            retryScheduler.schedule(() -> executeAsync(request, route, executionCount + 1, execution, metrics,
+                    trace), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //client closed meanwhile
+            execution.completeExceptionally(new RestApiClientException(e));
+        }
+    }
+
+    /**
+     * Waits for async execution on calling thread.
+     *
+     * @param execution response future
+     * @return response
+     */
+    private static HttpResponse await(CompletableFuture<HttpResponse> execution) {
+        try {
+            return execution.get();
+        } catch (InterruptedException e) {
+            execution.cancel(true);
+            Thread.currentThread().interrupt();
             throw new RestApiClientException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RestApiClientException(e.getCause());
+        }
+    }
+
+    /**
+     * Takes bulkhead permit of request route.
+     *
+     * @param route route of request
+     * @return acquired bulkhead to release once call is done, null if bulkheads are disabled
+     */
+    private Bulkhead acquireBulkhead(String route) {
+        if (routeGuards == null) {
+            return null;
+        }
+        Bulkhead bulkhead = routeGuards.bulkhead(route);
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            throw new CallNotPermittedException("Bulkhead is full for route " + route);
+        }
+        return bulkhead;
+    }
+
+    /**
+     * Route of request, computed once per call. Attempts sent to an endpoint keep the route of the api.
+     * Requests of routes over {@link #MAX_ROUTES} share the overflow route of their host.
+     *
+     * @param request Apache http request
+     * @return route, null if no feature needs it
+     */
+    private String routeOf(HttpUriRequest request) {
+        if (routeGuards == null && hedgingPolicy == null && metricsRecorder == null && tracer == null) {
+            return null;
+        }
+        URI uri;
+        try {
+            uri = loadBalancer == null ? request.getURI() : URIUtils.rewriteURI(request.getURI(), apiHost);
+        } catch (URISyntaxException e) {
+            throw new RestApiClientException(e);
+        }
+        String route = RouteGuards.routeOf(uri);
+        if (!routes.contains(route)) {
+            if (routes.size() >= MAX_ROUTES) {
+                return RouteGuards.overflowRouteOf(uri);
+            }
+            routes.add(route);
+        }
+        return route;
+    }
+
+    /**
+     * Points request at endpoint picked for the attempt.
+     *
+     * @param request Apache http request
+     * @return endpoint to report result to, null if load balancing is disabled
+     */
+    private Endpoint selectEndpoint(HttpUriRequest request) {
+        if (loadBalancer == null) {
+            return null;
+        }
+        Endpoint endpoint = selectEndpoint();
+        try {
+            ((HttpRequestBase) request).setURI(URIUtils.rewriteURI(request.getURI(), endpoint.getHost()));
+        } catch (URISyntaxException e) {
+            loadBalancer.release(endpoint);
+            throw new RestApiClientException(e);
+        }
+        return endpoint;
+    }
+
+    private Endpoint selectEndpoint() {
+        Endpoint endpoint = loadBalancer.select();
+        //preemptive auth is cached per host, endpoints may come and go with refresh
+        if (authorizedEndpoints.add(endpoint.getUrl())) {
+            authCache.put(endpoint.getHost(), new BasicScheme());
+        }
+        return endpoint;
+    }
+
+    private CircuitBreaker circuitBreakerOf(String route) {
+        return routeGuards == null ? null : routeGuards.circuitBreaker(route);
+    }
+
+    private ConcurrencyLimiter concurrencyLimiterOf(String route) {
+        return routeGuards == null ? null : routeGuards.concurrencyLimiter(route);
+    }
+
+    /**
+     * Takes concurrency limiter slot for the attempt, waiting for one up to queue timeout.
+     *
+     * @param limiter        limiter of request route, null if limiters are disabled
+     * @param circuitBreaker breaker whose permission is returned on rejection, may be null
+     */
+    private void acquireConcurrencyLimit(ConcurrencyLimiter limiter, CircuitBreaker circuitBreaker) {
+        if (limiter == null) {
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = concurrencyLimitQueueNanos > 0
+                    ? limiter.tryAcquire(concurrencyLimitQueueNanos, TimeUnit.NANOSECONDS) : limiter.tryAcquire();
+        } catch (InterruptedException e) {
+            if (circuitBreaker != null) {
+                circuitBreaker.releasePermission();
+            }
+            Thread.currentThread().interrupt();
+            throw new RestApiClientException(e);
+        }
+        if (!acquired) {
+            if (circuitBreaker != null) {
+                circuitBreaker.releasePermission();
+            }
+            throw new CallNotPermittedException("Concurrency limit reached for route " + limiter.getRoute());
+        }
+    }
+
+    /**
+     * Server errors and throttling count against circuit breaker, client errors do not.
+     */
+    private static boolean isFailure(HttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        return statusCode >= 500 || statusCode == 429;
+    }
+
+    /**
+     * Only idempotent requests without body are shared between callers.
+     *
+     * @param request Apache http request
+     * @return true if request can join identical one in flight
+     */
+    private boolean isCoalescable(HttpUriRequest request) {
+        return requestCoalescer != null && isIdempotentWithoutBody(request);
+    }
+
+    /**
+     * Only reads are sent twice, a second DELETE or PUT may fail after the first one succeeded and win the race.
+     *
+     * @param request Apache http request
+     * @return true if request can be hedged
+     */
+    private boolean isHedgeable(HttpUriRequest request) {
+        if (hedgingPolicy == null || !(request instanceof HttpRequestBase)) {
+            return false;
+        }
+        String method = request.getMethod();
+        return HttpGet.METHOD_NAME.equals(method) || HttpHead.METHOD_NAME.equals(method);
+    }
+
+    private static boolean isIdempotentWithoutBody(HttpUriRequest request) {
+        if (!RequestMethod.valueOf(request.getMethod()).isIdempotent()) {
+            return false;
+        }
+        return !(request instanceof HttpEntityEnclosingRequest)
+                || ((HttpEntityEnclosingRequest) request).getEntity() == null;
+    }
+
+    /**
+     * Hedge attempt gets its own request, interceptors modify headers of the one being executed.
+     */
+    private static HttpUriRequest copyOf(HttpUriRequest request) {
+        try {
+            return (HttpUriRequest) ((HttpRequestBase) request).clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RestApiClientException(e);
+        }
+    }
+
+    private static Type typeOf(TypeReference<?> responseType) {
+        return responseType == null ? null : responseType.getType();
+    }
+
+    /**
+     * Finds cached response for GET request, stale entry turns request into conditional one.
+     *
+     * @param path         url path
+     * @param request      Apache http request
+     * @param responseType jackson type to deserialize response.
+     * @return cache entry or null
+     */
+    private ResponseCache.Entry lookupCache(String path, HttpUriRequest request, TypeReference<?> responseType) {
+        if (responseCache == null || responseType == null || !HttpGet.METHOD_NAME.equals(request.getMethod())) {
+            return null;
+        }
+        return responseCache.lookup(path, responseType.getType(), request);
+    }
+
+    /**
+     * Http response parser going through response cache when it is enabled. Body read and deserialization
+     * are timed apart when metrics are enabled.
+     *
+     * @param path         url path
+     * @param request      Apache http request
+     * @param response     Apache http response
+     * @param responseType jackson type to deserialize response.
+     * @param cached       entry being revalidated or null
+     * @param metrics      call metrics, null if disabled
+     * @param trace        call trace, null if disabled
+     * @return parsed or cached response.
+     */
+    private <T> T parseAndCacheResponse(String path, HttpUriRequest request, HttpResponse response,
+                                        TypeReference<T> responseType, ResponseCache.Entry cached,
+                                        CallMetrics metrics, CallTrace trace) {
+        if (metrics == null && trace == null || response.getEntity() == null) {
+            return parseAndCacheResponse(path, request, response, responseType, cached);
+        }
+        TimedEntity entity = new TimedEntity(response.getEntity());
+        response.setEntity(entity);
+        Span span = trace == null ? Span.NOOP : trace.startSpan("parse");
+        long start = System.nanoTime();
+        try {
+            return parseAndCacheResponse(path, request, response, responseType, cached);
+        } catch (RuntimeException e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            long readNanos = entity.getReadNanos();
+            long parseNanos = System.nanoTime() - start - readNanos;
+            if (metrics != null) {
+                metrics.recordTime(MetricsRecorder.Phase.BODY_READ, readNanos);
+                metrics.recordTime(MetricsRecorder.Phase.DESERIALIZE, parseNanos);
+                metrics.recordResponseSize(entity.getByteCount());
+            }
+            span.setAttribute("body.read_nanos", readNanos);
+            span.setAttribute("body.bytes", entity.getByteCount());
+            span.end();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T parseAndCacheResponse(String path, HttpUriRequest request, HttpResponse response,
+                                        TypeReference<T> responseType, ResponseCache.Entry cached) {
+        if (responseCache == null) {
+            return parseResponse(path, response, responseType);
+        }
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (cached != null && statusCode == HttpStatus.SC_NOT_MODIFIED) {
+            return (T) responseCache.revalidated(cached, response);
+        }
+        if (!HttpGet.METHOD_NAME.equals(request.getMethod()) || responseType == null) {
+            T result = parseResponse(path, response, responseType);
+            if (!HttpHead.METHOD_NAME.equals(request.getMethod())) {
+                responseCache.invalidate(path);
+            }
+            return result;
+        }
+        CountingEntity entity = response.getEntity() == null ? null : new CountingEntity(response.getEntity());
+        response.setEntity(entity);
+        T result = parseResponse(path, response, responseType);
+        responseCache.put(path, responseType.getType(), result, response, entity == null ? 0 : entity.getByteCount());
+        return result;
+    }
+
+    /**
+     * Http response parser.
+     *
+     * @param path         url path
+     * @param response     Apache http response
+     * @param responseType jackson type to deserialize response.
+     * @return parsed response.
+     */
+    private <T> T parseResponse(String path, HttpResponse response, TypeReference<T> responseType) {
+        handleErrorResponse(path, response);
+        //handle successful response
+        if (responseType == null) {
+            return null;
+        }
+        return decode(response.getEntity(), responseType);
+    }
+
+    /**
+     * Creates context for single request execution, apache context is mutable and must not be shared
+     * between threads. Credentials and preemptive auth cache are thread safe and shared.
+     *
+     * @return request context
+     */
+    private HttpClientContext createContext() {
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider(credentialsProvider);
+        context.setAuthCache(authCache);
+        return context;
+    }
+
+    private HttpClientContext createContext(CallMetrics metrics, AttemptTrace trace) {
+        HttpClientContext context = createContext();
+        if (metrics != null) {
+            context.setAttribute(CallMetrics.CONTEXT_ATTRIBUTE, metrics);
+        }
+        if (trace != null) {
+            context.setAttribute(AttemptTrace.CONTEXT_ATTRIBUTE, trace);
+        }
+        return context;
+    }
+
+    /**
+     * Metrics of a call tagged with its route template.
+     *
+     * @param request Apache http request
+     * @param route   route of request
+     * @return call metrics, null if metrics are disabled
+     */
+    private CallMetrics callMetrics(HttpUriRequest request, String route) {
+        if (metricsRecorder == null) {
+            return null;
+        }
+        return new CallMetrics(metricsRecorder, request.getMethod(), route);
+    }
+
+    /**
+     * Trace of a call, parented by the current span of calling thread.
+     *
+     * @param request Apache http request
+     * @param route   route of request
+     * @return call trace, null if tracing is disabled
+     */
+    private CallTrace callTrace(HttpUriRequest request, String route) {
+        if (tracer == null) {
+            return null;
+        }
+        return CallTrace.start(tracer, request.getMethod(), route);
+    }
+
+    private static void endTrace(CallTrace trace, Throwable error) {
+        if (trace != null) {
+            trace.end(error);
+        }
+    }
+
+    private static void endAttempt(AttemptTrace attempt, int statusCode, Throwable error) {
+        if (attempt != null) {
+            attempt.end(statusCode, error);
+        }
+    }
+
+    private static long contentLengthOf(HttpUriRequest request) {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return 0;
+        }
+        HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+        return entity == null ? 0 : entity.getContentLength();
+    }
+
+    /**
+     * Throws exception with parsed error body for non 2xx response.
+     *
+     * @param path     url path
+     * @param response Apache http response
+     */
+    private void handleErrorResponse(String path, HttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode < 200 || statusCode >= 300) {
+            if (statusCode == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE) {
+                codecNegotiation.onUnsupportedMediaType();
+            }
+            Response errorResponse = decode(response.getEntity(), ERROR_RESPONSE_TYPE);
+            throw new RestApiClientException(path, statusCode, errorResponse);
+        }
+    }
+
+    private static void closeQuietly(CloseableHttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close http response", e);
         }
     }
 
@@ -283,10 +1472,28 @@ public class RestApiClient extends AbstractRestClient {
         }
     }
 
-    private static HttpEntity getJsonPayload(Object payload) {
+    /**
+     * Request body in the most preferred format.
+     */
+    private HttpEntity getPayload(Object payload) {
+        Codec codec = codecNegotiation.getRequestCodec();
+        if (payload == null || codec.isJson()) {
+            return getJsonPayload(payload);
+        }
+        try {
+            return new ByteArrayEntity(codec.writerFor(payload.getClass()).writeValueAsBytes(payload),
+                    ContentType.create(codec.getMediaType()));
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Failed to create payload", e);
+            throw new RestApiClientException(e);
+        }
+    }
+
+    static HttpEntity getJsonPayload(Object payload) {
         if (payload != null) {
             try {
-                return new StringEntity(MAPPER.writeValueAsString(payload), ContentType.APPLICATION_JSON);
+                return new StringEntity(JSON_CODEC.writerFor(payload.getClass()).writeValueAsString(payload),
+                        ContentType.APPLICATION_JSON);
             } catch (JsonProcessingException e) {
                 LOGGER.error("Failed to create payload", e);
                 throw new RestApiClientException(e);
@@ -295,25 +1502,120 @@ public class RestApiClient extends AbstractRestClient {
         return null;
     }
 
-    private static HttpEntity getMultipartPayload(File payload) {
-        if (payload != null) {
-            MultipartEntityBuilder builder = MultipartEntityBuilder.create();
-            builder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
-            builder.addPart("file", new FileBody(payload, ContentType.create("multipart/form-data")));
-            return builder.build();
+    /**
+     * Async producer reads entity content directly, multipart entity supports only writing it out.
+     */
+    private static HttpEntity getBufferedPayload(HttpEntity payload) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            payload.writeTo(out);
+            return new ByteArrayEntity(out.toByteArray(), ContentType.get(payload));
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
         }
-        return null;
     }
 
-    private static <T> T fromJson(String json, TypeReference<T> responseType) {
-        try {
-            return MAPPER.readValue(json, responseType);
+    /**
+     * Files are sent with known length, streams are written out chunked as they are read.
+     */
+    static HttpEntity getMultipartPayload(List<MultipartPart> parts) {
+        MultipartEntityBuilder builder = MultipartEntityBuilder.create();
+        builder.setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
+        for (MultipartPart part : parts) {
+            ContentType contentType = part.getContentType() != null
+                    ? ContentType.parse(part.getContentType()) : MULTIPART_CONTENT_TYPE;
+            if (part.getFile() != null) {
+                builder.addPart(part.getName(), new FileBody(part.getFile(), contentType, part.getFileName()));
+            } else if (part.getContent() != null) {
+                builder.addPart(part.getName(), new InputStreamBody(part.getContent(), contentType, part.getFileName()));
+            } else {
+                throw new RestApiClientException("Part content cannot be null.");
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Deserializes entity content with codec matching its content type.
+     *
+     * @param entity       response entity
+     * @param responseType jackson type to deserialize response.
+     * @return parsed response.
+     */
+    private <T> T decode(HttpEntity entity, TypeReference<T> responseType) {
+        if (entity == null) {
+            return null;
+        }
+        Codec codec = codecNegotiation.forContentType(contentTypeOf(entity));
+        if (codec.isJson()) {
+            return fromJson(entity, responseType);
+        }
+        try (InputStream content = entity.getContent()) {
+            return codec.readerFor(responseType).readValue(content);
+        } catch (Exception e) {
+            throw new RestApiClientException(e);
+        }
+    }
+
+    private static String contentTypeOf(HttpEntity entity) {
+        return entity == null || entity.getContentType() == null ? null : entity.getContentType().getValue();
+    }
+
+    /**
+     * Deserializes entity content as it is read from the connection, without buffering it into a string.
+     * Closing the content stream releases the connection back to the pool.
+     *
+     * @param entity       response entity
+     * @param responseType jackson type to deserialize response.
+     * @return parsed response.
+     */
+    static <T> T fromJson(HttpEntity entity, TypeReference<T> responseType) {
+        if (entity == null) {
+            return null;
+        }
+        try (InputStream content = entity.getContent()) {
+            Charset charset = charsetOf(entity);
+            if (charset == null || StandardCharsets.UTF_8.equals(charset)) {
+                //jackson detects unicode encoding from raw bytes
+                return JSON_CODEC.readerFor(responseType).readValue(content);
+            }
+            return JSON_CODEC.readerFor(responseType).readValue(new InputStreamReader(content, charset));
         } catch (Exception e) {
             throw new RestApiClientException(e);
         }
     }
 
-    private static String sanitizeUrl(String url) {
+    /**
+     * Header is parsed only when it declares charset other than utf-8, parsing costs more than reading
+     * small json body.
+     */
+    private static Charset charsetOf(HttpEntity entity) {
+        String contentType = contentTypeOf(entity);
+        if (contentType == null) {
+            return null;
+        }
+        String lowerCase = contentType.toLowerCase(Locale.ROOT);
+        if (!lowerCase.contains("charset") || lowerCase.contains("utf-8")) {
+            return null;
+        }
+        return ContentType.getOrDefault(entity).getCharset();
+    }
+
+    /**
+     * Pool limit, raised to the highest concurrency limit so the limiter rather than the pool decides.
+     */
+    private static int poolLimit(int configured, RestApiClientConfig config) {
+        if (config.getConcurrencyLimitAlgorithm() == null) {
+            return configured;
+        }
+        return Math.max(configured, config.getConcurrencyLimitMax());
+    }
+
+    static int positiveOrDefault(int value, int defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
+
+    static String sanitizeUrl(String url) {
         if (url == null) {
             return null;
         }
@@ -323,21 +1625,112 @@ public class RestApiClient extends AbstractRestClient {
         return url;
     }
 
-    static class FileDownloadResponseHandler implements ResponseHandler<File> {
+    /**
+     * Response cache with hit, miss and eviction counters.
+     *
+     * @return cache or null if it is disabled
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Circuit breakers created so far, keyed by route.
+     *
+     * @return breakers, empty if they are disabled
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return routeGuards == null ? Collections.emptyMap() : routeGuards.getCircuitBreakers();
+    }
+
+    /**
+     * Concurrency limiters created so far, keyed by route.
+     *
+     * @return limiters, empty if they are disabled
+     */
+    public Map<String, ConcurrencyLimiter> getConcurrencyLimiters() {
+        return routeGuards == null ? Collections.emptyMap() : routeGuards.getConcurrencyLimiters();
+    }
+
+    /**
+     * Opens pooled connections to api host, or to each endpoint, ahead of traffic, blocking until they
+     * are established. Failures are logged, calls open connections on demand as usual. Connect and pool
+     * timeouts apply, 5 seconds each when not configured.
+     *
+     * @param connections number of connections which should be open, capped by pool limit per route
+     * @return number of newly opened connections
+     */
+    public int warmUp(int connections) {
+        List<HttpHost> targets = new ArrayList<>();
+        if (loadBalancer == null) {
+            targets.add(apiHost);
+        } else {
+            loadBalancer.getEndpoints().forEach(endpoint -> targets.add(endpoint.getHost()));
+        }
+        int opened = 0;
+        for (HttpHost target : targets) {
+            HttpRoute route;
+            try {
+                route = routePlanner.determineRoute(target, new HttpGet(baseUrl), HttpClientContext.create());
+            } catch (HttpException e) {
+                throw new RestApiClientException(e);
+            }
+            if (route.isTunnelled()) {
+                LOGGER.warn("Warm up of tunnelled route {} is not supported.", route);
+                continue;
+            }
+            opened += ConnectionWarmer.warmUp(connectionManager, route, Math.min(connections, poolMaxPerRoute),
+                    warmUpConnectTimeout, warmUpLeaseTimeout);
+        }
+        return opened;
+    }
+
+    /**
+     * Endpoints balanced between.
+     *
+     * @return endpoints with their load and health, empty if load balancing is disabled
+     */
+    public List<Endpoint> getEndpoints() {
+        return loadBalancer == null ? Collections.emptyList() : loadBalancer.getEndpoints();
+    }
+
+    @Override
+    public void close() {
+        retryScheduler.shutdownNow();
+        if (connectionEvictor != null) {
+            connectionEvictor.close();
+        }
+        if (callExecutor != null) {
+            callExecutor.shutdownNow();
+        }
+        try {
+            client.close();
+            asyncClient.close();
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        }
+    }
+
+    /**
+     * Entity counting bytes read from content, used to weigh cached responses.
+     */
+    static class CountingEntity extends HttpEntityWrapper {
 
-        private final File target;
+        private CountingInputStream content;
 
-        public FileDownloadResponseHandler(File target) {
-            this.target = target;
+        CountingEntity(HttpEntity wrappedEntity) {
+            super(wrappedEntity);
         }
 
         @Override
-        public File handleResponse(HttpResponse response) throws ClientProtocolException, IOException {
-            InputStream source = response.getEntity().getContent();
-            FileUtils.copyInputStreamToFile(source, this.target);
-            return this.target;
+        public InputStream getContent() throws IOException {
+            content = new CountingInputStream(super.getContent());
+            return content;
         }
 
+        long getByteCount() {
+            return content == null ? 0 : content.getByteCount();
+        }
     }
 
     /**
@@ -346,14 +1739,23 @@ public class RestApiClient extends AbstractRestClient {
     public static SSLConnectionSocketFactory buildSslFactory(boolean verifySsl, String requestCaBundle)
             throws IOException, CertificateException, NoSuchAlgorithmException, KeyStoreException,
             KeyManagementException {
+        return new SSLConnectionSocketFactory(buildSslContext(verifySsl, requestCaBundle),
+                buildHostnameVerifier(verifySsl, requestCaBundle));
+    }
+
+    /**
+     * Ssl context builder.
+     */
+    public static SSLContext buildSslContext(boolean verifySsl, String requestCaBundle)
+            throws IOException, CertificateException, NoSuchAlgorithmException, KeyStoreException,
+            KeyManagementException {
         if (!verifySsl) {
             LOGGER.info("Client configured with trust all strategy");
             TrustStrategy acceptingTrustStrategy = (cert, authType) -> true;
-            SSLContext sslContext = SSLContexts.custom().loadTrustMaterial(null, acceptingTrustStrategy).build();
-            return new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE);
+            return SSLContexts.custom().loadTrustMaterial(null, acceptingTrustStrategy).build();
         } else if (requestCaBundle == null) {
             LOGGER.info("Client configured with default truststore strategy");
-            return new SSLConnectionSocketFactory(SSLContexts.createDefault());
+            return SSLContexts.createDefault();
         } else {
             LOGGER.info("Client configured with custom certificate");
             CertificateFactory cf = CertificateFactory.getInstance("X.509");
@@ -368,8 +1770,49 @@ public class RestApiClient extends AbstractRestClient {
             tmf.init(ks);
             SSLContext sslContext = SSLContext.getInstance("TLS");
             sslContext.init(null, tmf.getTrustManagers(), null);
-            return new SSLConnectionSocketFactory(sslContext, new NoopHostnameVerifier());
+            return sslContext;
+        }
+    }
+
+    static HostnameVerifier buildHostnameVerifier(boolean verifySsl, String requestCaBundle) {
+        if (verifySsl && requestCaBundle == null) {
+            return SSLConnectionSocketFactory.getDefaultHostnameVerifier();
+        }
+        return NoopHostnameVerifier.INSTANCE;
+    }
+
+    /**
+     * Non-blocking connection manager with the same pool limits and ssl setup as the blocking one.
+     */
+    private static PoolingNHttpClientConnectionManager buildAsyncConnectionManager(RestApiClientConfig config,
+                                                                                   SSLContext sslContext,
+                                                                                   HostnameVerifier hostnameVerifier) {
+        IOReactorConfig.Builder reactorConfig = IOReactorConfig.custom();
+        if (config.getConnectTimeout() > 0) {
+            reactorConfig.setConnectTimeout(config.getConnectTimeout());
+        }
+        if (config.getSocketTimeout() > 0) {
+            reactorConfig.setSoTimeout(config.getSocketTimeout());
+        }
+        PoolingNHttpClientConnectionManager manager;
+        try {
+            manager = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(reactorConfig.build()), null, RegistryBuilder
+                    .<SchemeIOSessionStrategy>create()
+                    .register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", new SSLIOSessionStrategy(sslContext, hostnameVerifier)).build(),
+                    null, null, config.getConnectionTimeToLiveMilliseconds() > 0
+                    ? config.getConnectionTimeToLiveMilliseconds() : -1, TimeUnit.MILLISECONDS);
+        } catch (IOReactorException e) {
+            throw new RestApiClientException(e);
+        }
+        if (poolLimit(config.getPoolMaxPerRoute(), config) > 0) {
+            manager.setDefaultMaxPerRoute(poolLimit(config.getPoolMaxPerRoute(), config));
+        }
+        if (poolLimit(config.getPoolMaxTotal(), config) > 0) {
+            manager.setMaxTotal(poolLimit(config.getPoolMaxTotal(), config));
         }
+        return manager;
     }
 
 }
@@ -0,0 +1,108 @@
+package com.mykhaliev.api.client.batch;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.BatchItemResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs async call for every item with at most concurrency calls in flight.
+ * Failed items are reported in results and do not stop the batch.
+ */
+public class BatchExecutor<K, T> {
+
+    private final Object[] items;
+
+    private final Function<K, CompletableFuture<T>> call;
+
+    private final BatchItemResult<?, ?>[] results;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private final CompletableFuture<List<BatchItemResult<K, T>>> future = new CompletableFuture<>();
+
+    private BatchExecutor(Collection<K> items, Function<K, CompletableFuture<T>> call) {
+        this.items = items.toArray();
+        this.call = call;
+        this.results = new BatchItemResult<?, ?>[this.items.length];
+    }
+
+    /**
+     * Starts batch.
+     *
+     * @param items       batch items
+     * @param call        async call for single item
+     * @param concurrency max number of calls in flight
+     * @return future of results in items order
+     */
+    public static <K, T> CompletableFuture<List<BatchItemResult<K, T>>> execute(
+            Collection<K> items, Function<K, CompletableFuture<T>> call, int concurrency) {
+        if (concurrency <= 0) {
+            throw new RestApiClientException("Batch concurrency must be positive.");
+        }
+        BatchExecutor<K, T> batch = new BatchExecutor<>(items, call);
+        if (batch.items.length == 0) {
+            batch.future.complete(new ArrayList<>());
+        }
+        for (int lane = 0; lane < Math.min(concurrency, batch.items.length); lane++) {
+            batch.runLane();
+        }
+        return batch.future;
+    }
+
+    /**
+     * Takes items one by one, continues from completion callback once call goes async.
+     */
+    @SuppressWarnings("unchecked")
+    private void runLane() {
+        int index;
+        while ((index = next.getAndIncrement()) < items.length) {
+            K item = (K) items[index];
+            CompletableFuture<T> result;
+            try {
+                result = call.apply(item);
+            } catch (RuntimeException e) {
+                result = new CompletableFuture<>();
+                result.completeExceptionally(e);
+            }
+            if (!result.isDone()) {
+                int pending = index;
+                result.whenComplete((value, e) -> {
+                    complete(pending, item, value, e);
+                    runLane();
+                });
+                return;
+            }
+            try {
+                complete(index, item, result.join(), null);
+            } catch (CompletionException e) {
+                complete(index, item, null, e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(int index, K item, T value, Throwable e) {
+        results[index] = new BatchItemResult<>(item, value, e == null ? null : toClientException(e));
+        if (completed.incrementAndGet() == items.length) {
+            future.complete((List<BatchItemResult<K, T>>) (List<?>) Arrays.asList(results));
+        }
+    }
+
+    private static RestApiClientException toClientException(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RestApiClientException) {
+            return (RestApiClientException) cause;
+        }
+        return new RestApiClientException(cause);
+    }
+}
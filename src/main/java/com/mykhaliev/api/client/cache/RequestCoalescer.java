@@ -0,0 +1,126 @@
+package com.mykhaliev.api.client.cache;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical concurrent requests, callers arriving while request is in flight
+ * wait for its result instead of sending their own. Results are shared and must not be modified.
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes call or joins identical call in flight.
+     *
+     * @param method request method
+     * @param url    request url
+     * @param type   response type, null if response is ignored
+     * @param call   request execution
+     * @return shared response
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, String url, Type type, Supplier<T> call) {
+        Key key = new Key(method, url, type);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new RestApiClientException(e.getCause());
+            }
+        }
+        try {
+            T result = call.get();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            //followers must not wait forever, whatever the leader failed with
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Executes async call or joins identical call in flight. Cancelling returned future
+     * does not abort the shared request.
+     *
+     * @param method request method
+     * @param url    request url
+     * @param type   response type, null if response is ignored
+     * @param call   async request execution
+     * @return shared response future
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String method, String url, Type type,
+                                                 Supplier<CompletableFuture<T>> call) {
+        Key key = new Key(method, url, type);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.thenApply(result -> (T) result);
+        }
+        try {
+            call.get().whenComplete((result, e) -> {
+                inFlight.remove(key, flight);
+                if (e != null) {
+                    flight.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                } else {
+                    flight.complete(result);
+                }
+            });
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.thenApply(result -> (T) result);
+    }
+
+    private static class Key {
+
+        private final String method;
+
+        private final String url;
+
+        private final Type type;
+
+        Key(String method, String url, Type type) {
+            this.method = method;
+            this.url = url;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return method.equals(key.method) && url.equals(key.url) && Objects.equals(type, key.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, url, type);
+        }
+    }
+}
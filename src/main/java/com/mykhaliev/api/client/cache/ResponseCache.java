@@ -0,0 +1,271 @@
+package com.mykhaliev.api.client.cache;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory cache of deserialized GET responses, keyed by url.
+ * Least recently used entries are evicted once entry count or total body size exceed the limits.
+ * Stale entries with ETag or Last-Modified are revalidated with conditional request,
+ * 304 response reuses cached object. Cached objects are shared between callers and must not be modified.
+ */
+public class ResponseCache {
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final long defaultTtlNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder revalidations = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates cache.
+     *
+     * @param maxEntries            max number of entries
+     * @param maxBytes              max total size of cached response bodies, 0 for no limit
+     * @param defaultTtlMilliseconds time to live of responses without max-age
+     */
+    public ResponseCache(int maxEntries, long maxBytes, long defaultTtlMilliseconds) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.defaultTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, defaultTtlMilliseconds));
+    }
+
+    /**
+     * Finds entry for url and type, stale entry gets conditional headers added to request.
+     *
+     * @param url     request url
+     * @param type    response type
+     * @param request request to revalidate stale entry
+     * @return fresh or revalidatable entry, null on miss
+     */
+    public Entry lookup(String url, Type type, HttpRequest request) {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(url);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (!entry.type.equals(type) || (!entry.isFresh() && !entry.isRevalidatable())) {
+                remove(url);
+                misses.increment();
+                return null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry.isFresh()) {
+            hits.increment();
+        } else {
+            misses.increment();
+            if (entry.etag != null) {
+                request.setHeader("If-None-Match", entry.etag);
+            }
+            if (entry.lastModified != null) {
+                request.setHeader("If-Modified-Since", entry.lastModified);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Stores parsed response if it is cacheable.
+     *
+     * @param url      request url
+     * @param type     response type
+     * @param value    parsed response
+     * @param response http response
+     * @param size     response body size in bytes
+     */
+    public void put(String url, Type type, Object value, HttpResponse response, long size) {
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+            return;
+        }
+        Long ttl = ttl(response);
+        String etag = headerValue(response, "ETag");
+        String lastModified = headerValue(response, "Last-Modified");
+        if (ttl == null || (ttl == 0 && etag == null && lastModified == null)) {
+            return;
+        }
+        if (maxBytes > 0 && size > maxBytes) {
+            return;
+        }
+        Entry entry = new Entry(type, value, etag, lastModified, ttl, size);
+        lock.lock();
+        try {
+            remove(url);
+            entries.put(url, entry);
+            totalBytes += size;
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries || (maxBytes > 0 && totalBytes > maxBytes)) {
+                totalBytes -= eldest.next().getValue().size;
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Refreshes entry after 304 response.
+     *
+     * @param entry    revalidated entry
+     * @param response not modified response
+     * @return cached value
+     */
+    public Object revalidated(Entry entry, HttpResponse response) {
+        revalidations.increment();
+        //304 without Cache-Control keeps freshness of the stored response
+        Long ttl = response.containsHeader("Cache-Control") ? ttl(response) : Long.valueOf(entry.ttl);
+        entry.expiresAt = System.nanoTime() + (ttl == null ? 0 : ttl);
+        return entry.value;
+    }
+
+    /**
+     * Removes entry after unsafe request to the same url.
+     *
+     * @param url request url
+     */
+    public void invalidate(String url) {
+        lock.lock();
+        try {
+            remove(url);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String url) {
+        Entry removed = entries.remove(url);
+        if (removed != null) {
+            totalBytes -= removed.size;
+        }
+    }
+
+    /**
+     * Time to live from Cache-Control.
+     *
+     * @return ttl in nanos, null if response must not be stored
+     */
+    private Long ttl(HttpResponse response) {
+        for (Header header : response.getHeaders("Cache-Control")) {
+            for (HeaderElement element : header.getElements()) {
+                String name = element.getName().toLowerCase(Locale.ROOT);
+                if ("no-store".equals(name)) {
+                    return null;
+                }
+                if ("no-cache".equals(name)) {
+                    return 0L;
+                }
+                if ("max-age".equals(name) && element.getValue() != null) {
+                    try {
+                        return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(element.getValue())));
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                }
+            }
+        }
+        return defaultTtlNanos;
+    }
+
+    private static String headerValue(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * Cached response.
+     */
+    public static class Entry {
+
+        private final Type type;
+
+        private final Object value;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        private final long size;
+
+        private final long ttl;
+
+        private volatile long expiresAt;
+
+        Entry(Type type, Object value, String etag, String lastModified, long ttl, long size) {
+            this.type = type;
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.ttl = ttl;
+            this.expiresAt = System.nanoTime() + ttl;
+            this.size = size;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public boolean isFresh() {
+            return expiresAt - System.nanoTime() > 0;
+        }
+
+        boolean isRevalidatable() {
+            return etag != null || lastModified != null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mykhaliev.api.client.codec;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serialization format of request and response bodies, any jackson data format can be plugged in,
+ * e.g. MessagePack with {@code Codec.of("application/x-msgpack", new MessagePackFactory())}.
+ */
+public class Codec {
+
+    public static final String JSON_MEDIA_TYPE = "application/json";
+    public static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+    public static final String CBOR_MEDIA_TYPE = "application/cbor";
+
+    private final String mediaType;
+
+    private final ObjectMapper mapper;
+
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public Codec(String mediaType, ObjectMapper mapper) {
+        this.mediaType = mediaType;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Codec with the same mapper settings as default json one.
+     *
+     * @param mediaType content type of format
+     * @param factory   jackson factory of format
+     * @return codec
+     */
+    public static Codec of(String mediaType, JsonFactory factory) {
+        return new Codec(mediaType, new ObjectMapper(factory)
+                .setSerializationInclusion(Include.NON_NULL)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+    }
+
+    public static Codec json() {
+        return of(JSON_MEDIA_TYPE, new JsonFactory());
+    }
+
+    public static Codec smile() {
+        return of(SMILE_MEDIA_TYPE, new SmileFactory());
+    }
+
+    public static Codec cbor() {
+        return of(CBOR_MEDIA_TYPE, new CBORFactory());
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Reader with deserializer resolved once per type and shared between threads. Equal generic types
+     * share the reader, so new type reference instance per call still hits the cache.
+     *
+     * @param type response type
+     * @return reader
+     */
+    public ObjectReader readerFor(TypeReference<?> type) {
+        ObjectReader reader = readers.get(type.getType());
+        if (reader == null) {
+            reader = readers.computeIfAbsent(type.getType(), key -> mapper.readerFor(type));
+        }
+        return reader;
+    }
+
+    /**
+     * Writer with serializer resolved once per payload class and shared between threads.
+     *
+     * @param type payload class
+     * @return writer
+     */
+    public ObjectWriter writerFor(Class<?> type) {
+        ObjectWriter writer = writers.get(type);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(type, mapper::writerFor);
+        }
+        return writer;
+    }
+
+    public boolean isJson() {
+        return JSON_MEDIA_TYPE.equals(mediaType);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mykhaliev.api.client.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks codecs by preference. All codecs are offered in Accept header and response is decoded by its
+ * Content-Type, json being the fallback. Request bodies stay json until the server answers in a preferred
+ * codec, as it may produce a format it does not accept. Codec rejected with 415 is not used for bodies again.
+ */
+public class CodecNegotiation {
+
+    private final List<Codec> codecs = new ArrayList<>();
+
+    private final Codec fallback;
+
+    private final String accept;
+
+    private final Set<Codec> rejected = ConcurrentHashMap.newKeySet();
+
+    private volatile Codec requestCodec;
+
+    /**
+     * @param preferred codecs in order of preference, may be null
+     * @param fallback  json codec
+     */
+    public CodecNegotiation(List<Codec> preferred, Codec fallback) {
+        if (preferred != null) {
+            for (Codec codec : preferred) {
+                if (!codec.getMediaType().equalsIgnoreCase(fallback.getMediaType())) {
+                    codecs.add(codec);
+                }
+            }
+        }
+        codecs.add(fallback);
+        this.fallback = fallback;
+        this.requestCodec = fallback;
+        StringBuilder builder = new StringBuilder(fallback.getMediaType().length() * codecs.size());
+        for (int i = 0; i < codecs.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(codecs.get(i).getMediaType());
+            if (i > 0) {
+                builder.append(";q=").append(Math.max(1, 10 - i) / 10.0);
+            }
+        }
+        accept = builder.toString();
+    }
+
+    public Codec getRequestCodec() {
+        return requestCodec;
+    }
+
+    /**
+     * Puts request bodies back to json after server rejected their media type.
+     */
+    public void onUnsupportedMediaType() {
+        Codec codec = requestCodec;
+        if (codec != fallback) {
+            rejected.add(codec);
+            requestCodec = fallback;
+        }
+    }
+
+    public String getAccept() {
+        return accept;
+    }
+
+    /**
+     * Codec for response body.
+     *
+     * @param contentType response content type, may have parameters
+     * @return matching codec or json one
+     */
+    public Codec forContentType(String contentType) {
+        if (contentType == null) {
+            return fallback;
+        }
+        int parameters = contentType.indexOf(';');
+        String mediaType = (parameters < 0 ? contentType : contentType.substring(0, parameters))
+                .trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < codecs.size(); i++) {
+            Codec codec = codecs.get(i);
+            if (codec.getMediaType().equals(mediaType)) {
+                //server speaks the codec, bodies switch to it if preferred over the current one
+                if (codec != fallback && i < codecs.indexOf(requestCodec) && !rejected.contains(codec)) {
+                    requestCodec = codec;
+                }
+                return codec;
+            }
+        }
+        return fallback;
+    }
+}
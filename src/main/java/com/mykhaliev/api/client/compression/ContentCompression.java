@@ -0,0 +1,143 @@
+package com.mykhaliev.api.client.compression;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.DecompressingEntity;
+import org.apache.http.client.entity.DeflateInputStreamFactory;
+import org.apache.http.client.entity.GZIPInputStreamFactory;
+import org.apache.http.client.entity.InputStreamFactory;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content encoding negotiation. Responses are decompressed as they are read, request bodies above
+ * threshold are gzip compressed.
+ */
+public class ContentCompression {
+
+    public static final String DEFAULT_ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final String GZIP = "gzip";
+
+    private final Map<String, InputStreamFactory> decoders;
+
+    private final int requestThresholdBytes;
+
+    /**
+     * @param acceptEncoding        comma separated encodings to advertise, null for default, empty to disable
+     * @param customDecoders        decoders for encodings jdk has no support for, e.g. br, may be null
+     * @param requestThresholdBytes minimal request body size to compress, 0 to disable
+     */
+    public ContentCompression(String acceptEncoding, Map<String, InputStreamFactory> customDecoders,
+                              int requestThresholdBytes) {
+        Map<String, InputStreamFactory> available = new HashMap<>();
+        available.put(GZIP, GZIPInputStreamFactory.getInstance());
+        available.put("x-gzip", GZIPInputStreamFactory.getInstance());
+        available.put("deflate", DeflateInputStreamFactory.getInstance());
+        if (customDecoders != null) {
+            customDecoders.forEach((encoding, decoder) -> available.put(encoding.toLowerCase(Locale.ROOT), decoder));
+        }
+        //ordered as advertised
+        decoders = new LinkedHashMap<>();
+        String encodings = acceptEncoding == null ? DEFAULT_ACCEPT_ENCODING : acceptEncoding;
+        for (String encoding : encodings.split(",")) {
+            encoding = encoding.trim().toLowerCase(Locale.ROOT);
+            if (encoding.isEmpty()) {
+                continue;
+            }
+            InputStreamFactory decoder = available.get(encoding);
+            if (decoder == null) {
+                throw new RestApiClientException("No decoder for content encoding: " + encoding);
+            }
+            decoders.put(encoding, decoder);
+        }
+        this.requestThresholdBytes = requestThresholdBytes;
+    }
+
+    /**
+     * Sync client decodes responses with its own protocol interceptor.
+     *
+     * @param builder client builder
+     */
+    public void configure(HttpClientBuilder builder) {
+        if (decoders.isEmpty()) {
+            builder.disableContentCompression();
+        } else {
+            builder.setContentDecoderRegistry(decoders);
+        }
+    }
+
+    /**
+     * Async client only gets the header, response is decoded with {@link #decompress(HttpResponse)}.
+     *
+     * @param builder async client builder
+     */
+    public void configure(HttpAsyncClientBuilder builder) {
+        if (!decoders.isEmpty()) {
+            builder.addInterceptorLast(new RequestAcceptEncoding(new ArrayList<>(decoders.keySet())));
+        }
+    }
+
+    /**
+     * Replaces encoded response entity with one decoding content as it is read.
+     *
+     * @param response http response
+     */
+    public void decompress(HttpResponse response) {
+        HttpEntity entity = response.getEntity();
+        Header contentEncoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (entity == null || entity.getContentLength() == 0 || contentEncoding == null) {
+            return;
+        }
+        String encoding = contentEncoding.getValue().trim().toLowerCase(Locale.ROOT);
+        if ("identity".equals(encoding)) {
+            return;
+        }
+        InputStreamFactory decoder = decoders.get(encoding);
+        if (decoder == null) {
+            throw new RestApiClientException("Unsupported content encoding: " + encoding);
+        }
+        response.setEntity(new DecompressingEntity(entity, decoder));
+        response.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+        response.removeHeaders(HttpHeaders.CONTENT_ENCODING);
+        response.removeHeaders("Content-MD5");
+    }
+
+    /**
+     * Gzip compresses request body above threshold. Compressed body is buffered, so it keeps known length
+     * and stays repeatable for retries.
+     *
+     * @param payload request body, must be repeatable
+     * @return compressed or the same body
+     */
+    public HttpEntity compress(HttpEntity payload) {
+        if (payload == null || requestThresholdBytes <= 0 || payload.getContentEncoding() != null
+                || payload.getContentLength() < requestThresholdBytes) {
+            return payload;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) payload.getContentLength() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            payload.writeTo(gzip);
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        }
+        ByteArrayEntity compressed = new ByteArrayEntity(out.toByteArray(), ContentType.get(payload));
+        compressed.setContentEncoding(GZIP);
+        return compressed;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mykhaliev.api.client.concurrent;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual thread support. This is the Java 8 variant, the multi-release jar replaces it with
+ * the one in {@code src/main/java21} on Java 21 and later.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if running jvm has virtual threads
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Executor starting a virtual thread per task.
+     *
+     * @param namePrefix thread name prefix
+     * @return executor, must be shut down
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later.");
+    }
+}
@@ -1,7 +1,19 @@
 package com.mykhaliev.api.client.config;
 
+import com.mykhaliev.api.client.codec.Codec;
+import com.mykhaliev.api.client.loadbalancer.LoadBalancer;
+import com.mykhaliev.api.client.metrics.MetricsRecorder;
+import com.mykhaliev.api.client.resilience.CircuitBreaker;
+import com.mykhaliev.api.client.resilience.ConcurrencyLimiter;
+import com.mykhaliev.api.client.tracing.Tracer;
 import lombok.Builder;
 import lombok.Data;
+import org.apache.http.client.entity.InputStreamFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Rest client config.
@@ -11,6 +23,15 @@ import lombok.Data;
 public class RestApiClientConfig {
 
     private String apiRootUrl;
+    private List<String> endpoints;
+    private Supplier<List<String>> endpointSupplier;
+    @Builder.Default
+    private int endpointRefreshIntervalMilliseconds = 30000;
+    private LoadBalancer.Strategy loadBalancingStrategy;
+    @Builder.Default
+    private int endpointEjectionFailures = 5;
+    @Builder.Default
+    private int endpointEjectionMilliseconds = 30000;
     private String username;
     private String password;
     private String proxyHost;
@@ -19,6 +40,12 @@ public class RestApiClientConfig {
     private String proxyPassword;
     private int poolMaxPerRoute = 10;
     private int poolMaxTotal = 20;
+    private int poolWarmUpConnections;
+    private int connectionTimeToLiveMilliseconds;
+    private int idleConnectionTimeoutMilliseconds;
+    @Builder.Default
+    private int idleConnectionEvictionIntervalMilliseconds = 5000;
+    private int validateAfterInactivityMilliseconds;
     private int connectionRequestTimeout = 5000;
     private int connectTimeout = 5000;
     private int socketTimeout = 5000;
@@ -26,5 +53,65 @@ public class RestApiClientConfig {
     private String caBundle;
     private int retryCount = 1;
     private int retryIntervalMilliseconds = 1000;
+    @Builder.Default
+    private int retryMaxIntervalMilliseconds = 30000;
+    private Set<Integer> retryStatusCodes;
+    private List<Class<? extends Exception>> retryExceptions;
+    @Builder.Default
+    private int retryBudgetPercent = 20;
+    @Builder.Default
+    private int retryBudgetMinPerSecond = 10;
+    private int circuitBreakerFailureRateThreshold;
+    private int circuitBreakerSlowCallRateThreshold;
+    @Builder.Default
+    private int circuitBreakerSlowCallDurationMilliseconds = 2000;
+    @Builder.Default
+    private int circuitBreakerWindowSize = 20;
+    @Builder.Default
+    private int circuitBreakerMinimumCalls = 10;
+    @Builder.Default
+    private int circuitBreakerOpenDurationMilliseconds = 30000;
+    @Builder.Default
+    private int circuitBreakerHalfOpenCalls = 3;
+    private CircuitBreaker.Listener circuitBreakerListener;
+    private int bulkheadMaxConcurrentCalls;
+    private ConcurrencyLimiter.Algorithm concurrencyLimitAlgorithm;
+    @Builder.Default
+    private int concurrencyLimitInitial = 20;
+    @Builder.Default
+    private int concurrencyLimitMin = 1;
+    @Builder.Default
+    private int concurrencyLimitMax = 100;
+    @Builder.Default
+    private int concurrencyLimitLatencyThresholdMilliseconds = 1000;
+    private int concurrencyLimitQueueMilliseconds;
+    private boolean hedging;
+    private int hedgingDelayMilliseconds;
+    @Builder.Default
+    private int hedgingLatencyPercentile = 95;
+    @Builder.Default
+    private int hedgingBudgetPercent = 10;
+    @Builder.Default
+    private int hedgingBudgetMinPerSecond = 1;
+    private int leakDetectionThresholdMilliseconds;
+    private int cacheMaxEntries;
+    private long cacheMaxBytes;
+    @Builder.Default
+    private int cacheTtlMilliseconds = 60000;
+    private boolean requestCoalescing;
+    @Builder.Default
+    private int batchConcurrency = 10;
+    @Builder.Default
+    private int downloadResumeAttempts = 3;
+    @Builder.Default
+    private int downloadSegments = 1;
+    private String acceptEncoding;
+    private Map<String, InputStreamFactory> contentDecoders;
+    private int requestCompressionThresholdBytes;
+    private List<Codec> codecs;
+    private MetricsRecorder metricsRecorder;
+    private Tracer tracer;
+    private boolean http2;
+    private boolean virtualThreads;
 
 }
@@ -0,0 +1,89 @@
+package com.mykhaliev.api.client.connection;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens pooled connections ahead of traffic, so first calls after startup do not pay tcp and tls setup.
+ */
+public final class ConnectionWarmer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionWarmer.class);
+
+    private ConnectionWarmer() {
+    }
+
+    /**
+     * Leases given number of connections of the route, opens those not open yet in parallel
+     * and puts all of them back to the pool.
+     *
+     * @param manager            connection manager
+     * @param route              route to warm up, must not be tunnelled
+     * @param connections        number of connections which should be open
+     * @param connectTimeout     connect timeout in milliseconds
+     * @param leaseTimeoutMillis timeout waiting for pooled connection
+     * @return number of newly opened connections
+     */
+    public static int warmUp(HttpClientConnectionManager manager, HttpRoute route, int connections,
+                             int connectTimeout, long leaseTimeoutMillis) {
+        List<HttpClientConnection> leased = new ArrayList<>();
+        List<CompletableFuture<Void>> connects = new ArrayList<>();
+        AtomicInteger opened = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, connections), runnable -> {
+            Thread thread = new Thread(runnable, "rest-api-client-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            //all connections are held at once, otherwise the same idle one would be leased again
+            for (int i = 0; i < connections; i++) {
+                HttpClientConnection connection = manager.requestConnection(route, null)
+                        .get(leaseTimeoutMillis, TimeUnit.MILLISECONDS);
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    connects.add(CompletableFuture.runAsync(() -> {
+                        open(manager, connection, route, connectTimeout);
+                        opened.incrementAndGet();
+                    }, executor));
+                }
+            }
+            CompletableFuture.allOf(connects.toArray(new CompletableFuture[0])).join();
+        } catch (Exception e) {
+            LOGGER.warn("Warm up of {} stopped after {} connections: {}", route.getTargetHost(), opened.get(),
+                    e.getCause() == null ? e.toString() : e.getCause().toString());
+        } finally {
+            //connections still being opened are released once done
+            CompletableFuture.allOf(connects.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+            executor.shutdown();
+            for (HttpClientConnection connection : leased) {
+                manager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+        return opened.get();
+    }
+
+    private static void open(HttpClientConnectionManager manager, HttpClientConnection connection, HttpRoute route,
+                             int connectTimeout) {
+        HttpClientContext context = HttpClientContext.create();
+        try {
+            manager.connect(connection, route, connectTimeout, context);
+            manager.routeComplete(connection, route, context);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.mykhaliev.api.client.connection;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Connection manager decorator letting callers wait for a free pool slot on semaphores instead of inside the pool.
+ * Pool lease waits within a synchronized block, which pins a virtual thread to its carrier, so a few thousand
+ * waiting calls would stall every carrier. Here only callers sure to get a connection enter the pool.
+ * Lease timeout covers both waits, pool limits are mirrored by the permits. Limit of a route is read when the route
+ * is first used, later pool limit changes are not picked up.
+ */
+public class GatedConnectionManager implements HttpClientConnectionManager {
+
+    private final HttpClientConnectionManager delegate;
+
+    private final ToIntFunction<HttpRoute> maxPerRoute;
+
+    private final Semaphore totalPermits;
+
+    private final Map<HttpRoute, Semaphore> routePermits = new ConcurrentHashMap<>();
+
+    private final Map<HttpClientConnection, Semaphore> leases = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate    pooling connection manager
+     * @param maxPerRoute pool connection limit of a route, usually {@code pool::getMaxPerRoute}
+     * @param maxTotal    pool connection limit
+     */
+    public GatedConnectionManager(HttpClientConnectionManager delegate, ToIntFunction<HttpRoute> maxPerRoute,
+                                  int maxTotal) {
+        this.delegate = delegate;
+        this.maxPerRoute = maxPerRoute;
+        this.totalPermits = new Semaphore(maxTotal, true);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        return new GatedRequest(route, state);
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection connection, Object newState, long validDuration,
+                                  TimeUnit timeUnit) {
+        Semaphore route = leases.remove(connection);
+        try {
+            delegate.releaseConnection(connection, newState, validDuration, timeUnit);
+        } finally {
+            if (route != null) {
+                route.release();
+                totalPermits.release();
+            }
+        }
+    }
+
+    @Override
+    public void connect(HttpClientConnection connection, HttpRoute route, int connectTimeout, HttpContext context)
+            throws IOException {
+        delegate.connect(connection, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(connection, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection connection, HttpRoute route, HttpContext context)
+            throws IOException {
+        delegate.routeComplete(connection, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+        delegate.closeIdleConnections(idleTime, timeUnit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private Semaphore routePermits(HttpRoute route) {
+        Semaphore permits = routePermits.get(route);
+        if (permits == null) {
+            permits = routePermits.computeIfAbsent(route, key -> new Semaphore(maxPerRoute.applyAsInt(key), true));
+        }
+        return permits;
+    }
+
+    /**
+     * Lease taking route and total permits before entering the pool. Cancelling it takes effect once
+     * the caller has left the gate, permits are given back right away.
+     */
+    private class GatedRequest implements ConnectionRequest {
+
+        private final HttpRoute route;
+
+        private final Object state;
+
+        private volatile boolean cancelled;
+
+        private volatile ConnectionRequest request;
+
+        GatedRequest(HttpRoute route, Object state) {
+            this.route = route;
+            this.state = state;
+        }
+
+        @Override
+        public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+            //0 waits indefinitely, as in the pool
+            long deadline = timeout > 0 ? System.nanoTime() + timeUnit.toNanos(timeout) : 0;
+            Semaphore route = routePermits(this.route);
+            boolean routeAcquired = false;
+            boolean totalAcquired = false;
+            try {
+                routeAcquired = acquire(route, deadline);
+                totalAcquired = routeAcquired && acquire(totalPermits, deadline);
+                if (cancelled) {
+                    throw new InterruptedException("Connection request cancelled");
+                }
+                if (!totalAcquired) {
+                    throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+                }
+                request = delegate.requestConnection(this.route, state);
+                if (cancelled) {
+                    request.cancel();
+                }
+                long remaining = deadline == 0 ? 0 : Math.max(1, deadline - System.nanoTime());
+                HttpClientConnection connection = request.get(remaining, TimeUnit.NANOSECONDS);
+                leases.put(connection, route);
+                return connection;
+            } catch (InterruptedException | ExecutionException | ConnectionPoolTimeoutException
+                    | RuntimeException e) {
+                if (totalAcquired) {
+                    totalPermits.release();
+                }
+                if (routeAcquired) {
+                    route.release();
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            cancelled = true;
+            ConnectionRequest request = this.request;
+            return request == null || request.cancel();
+        }
+
+        private boolean acquire(Semaphore permits, long deadline) throws InterruptedException {
+            if (deadline == 0) {
+                permits.acquire();
+                return true;
+            }
+            return permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mykhaliev.api.client.connection;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background task closing pooled connections which expired or stayed idle too long, so they are not handed
+ * to a request after the server has dropped them.
+ */
+public class IdleConnectionEvictor implements AutoCloseable {
+
+    private final HttpClientConnectionManager manager;
+
+    private final NHttpClientConnectionManager asyncManager;
+
+    private final long idleTimeoutMillis;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param manager           sync connection manager
+     * @param asyncManager      async connection manager
+     * @param idleTimeoutMillis idle time after which connection is closed, 0 to close only expired ones
+     * @param intervalMillis    eviction period
+     */
+    public IdleConnectionEvictor(HttpClientConnectionManager manager, NHttpClientConnectionManager asyncManager,
+                                 long idleTimeoutMillis, long intervalMillis) {
+        this.manager = manager;
+        this.asyncManager = asyncManager;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rest-api-client-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::evict, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes expired connections and those idle longer than idle timeout.
+     */
+    public void evict() {
+        manager.closeExpiredConnections();
+        asyncManager.closeExpiredConnections();
+        if (idleTimeoutMillis > 0) {
+            manager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+            asyncManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package com.mykhaliev.api.client.connection;
+
+import com.mykhaliev.api.client.tracing.AttemptTrace;
+import com.mykhaliev.api.client.tracing.Span;
+import org.apache.http.HttpHost;
+import org.apache.http.config.Lookup;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.DefaultHttpClientConnectionOperator;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Connection operator tracing dns resolution of the attempt being connected. Resolver gets no context,
+ * it is handed over on the connecting thread.
+ */
+public class InstrumentedConnectionOperator extends DefaultHttpClientConnectionOperator {
+
+    private static final ThreadLocal<HttpContext> CONNECTING = new ThreadLocal<>();
+
+    public InstrumentedConnectionOperator(Lookup<ConnectionSocketFactory> socketFactoryRegistry) {
+        super(socketFactoryRegistry, null, new TracingDnsResolver());
+    }
+
+    @Override
+    public void connect(ManagedHttpClientConnection conn, HttpHost host, InetSocketAddress localAddress,
+                        int connectTimeout, SocketConfig socketConfig, HttpContext context) throws IOException {
+        CONNECTING.set(context);
+        try {
+            super.connect(conn, host, localAddress, connectTimeout, socketConfig, context);
+        } finally {
+            CONNECTING.remove();
+        }
+    }
+
+    private static class TracingDnsResolver implements DnsResolver {
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            AttemptTrace trace = AttemptTrace.of(CONNECTING.get());
+            if (trace == null) {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            }
+            Span span = trace.startPhase("dns");
+            span.setAttribute("net.peer.name", host);
+            try {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            } catch (UnknownHostException e) {
+                span.recordException(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        }
+    }
+}
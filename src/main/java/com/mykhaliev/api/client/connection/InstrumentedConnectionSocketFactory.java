@@ -0,0 +1,130 @@
+package com.mykhaliev.api.client.connection;
+
+import com.mykhaliev.api.client.metrics.CallMetrics;
+import com.mykhaliev.api.client.metrics.MetricsRecorder;
+import com.mykhaliev.api.client.tracing.AttemptTrace;
+import com.mykhaliev.api.client.tracing.Span;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Socket factory recording connect time of new connections to call metrics and tracing connect
+ * and tls handshake of the attempt in context.
+ */
+public class InstrumentedConnectionSocketFactory implements ConnectionSocketFactory {
+
+    private final ConnectionSocketFactory delegate;
+
+    protected InstrumentedConnectionSocketFactory(ConnectionSocketFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param delegate socket factory to instrument
+     * @return instrumented factory, layered if delegate is layered
+     */
+    public static ConnectionSocketFactory of(ConnectionSocketFactory delegate) {
+        if (delegate instanceof LayeredConnectionSocketFactory) {
+            return new Layered((LayeredConnectionSocketFactory) delegate);
+        }
+        return new InstrumentedConnectionSocketFactory(delegate);
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+        return delegate.createSocket(context);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress,
+                                InetSocketAddress localAddress, HttpContext context) throws IOException {
+        CallMetrics metrics = CallMetrics.of(context);
+        AttemptTrace trace = AttemptTrace.of(context);
+        if (metrics == null && trace == null) {
+            return delegate.connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+        }
+        long start = System.nanoTime();
+        Socket socket = connect(connectTimeout, sock, host, remoteAddress, localAddress, context, trace);
+        if (metrics != null) {
+            metrics.recordTime(MetricsRecorder.Phase.CONNECT, System.nanoTime() - start);
+        }
+        return socket;
+    }
+
+    protected Socket connect(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress,
+                             InetSocketAddress localAddress, HttpContext context, AttemptTrace trace)
+            throws IOException {
+        Span span = trace == null ? Span.NOOP : trace.startPhase("connect");
+        try {
+            return delegate.connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+        } catch (IOException e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Tls factory is layered, proxy tunnels are upgraded with it. Plain connect and handshake are done
+     * apart to trace them separately.
+     */
+    private static class Layered extends InstrumentedConnectionSocketFactory
+            implements LayeredConnectionSocketFactory {
+
+        private final LayeredConnectionSocketFactory layered;
+
+        Layered(LayeredConnectionSocketFactory delegate) {
+            super(delegate);
+            this.layered = delegate;
+        }
+
+        @Override
+        protected Socket connect(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress,
+                                 InetSocketAddress localAddress, HttpContext context, AttemptTrace trace)
+                throws IOException {
+            Socket socket = sock != null ? sock : createSocket(context);
+            if (trace == null || socket instanceof SSLSocket) {
+                return super.connect(connectTimeout, socket, host, remoteAddress, localAddress, context, trace);
+            }
+            if (localAddress != null) {
+                socket.bind(localAddress);
+            }
+            Span span = trace.startPhase("connect");
+            try {
+                if (connectTimeout > 0 && socket.getSoTimeout() == 0) {
+                    socket.setSoTimeout(connectTimeout);
+                }
+                socket.connect(remoteAddress, connectTimeout);
+            } catch (IOException e) {
+                span.recordException(e);
+                socket.close();
+                throw e;
+            } finally {
+                span.end();
+            }
+            Span handshake = trace.startPhase("tls");
+            try {
+                return layered.createLayeredSocket(socket, host.getHostName(), remoteAddress.getPort(), context);
+            } catch (IOException e) {
+                handshake.recordException(e);
+                throw e;
+            } finally {
+                handshake.end();
+            }
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            return layered.createLayeredSocket(socket, target, port, context);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mykhaliev.api.client.connection;
+
+import com.mykhaliev.api.client.metrics.CallMetrics;
+import com.mykhaliev.api.client.metrics.MetricsRecorder;
+import com.mykhaliev.api.client.tracing.AttemptTrace;
+import com.mykhaliev.api.client.tracing.Span;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+
+/**
+ * Request executor recording time from sending request on established connection until response headers
+ * are received, and tracing request write and waiting for response apart.
+ */
+public class InstrumentedRequestExecutor extends HttpRequestExecutor {
+
+    @Override
+    public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context)
+            throws IOException, HttpException {
+        CallMetrics metrics = CallMetrics.of(context);
+        if (metrics == null) {
+            return super.execute(request, conn, context);
+        }
+        long start = System.nanoTime();
+        HttpResponse response = super.execute(request, conn, context);
+        metrics.recordTime(MetricsRecorder.Phase.TIME_TO_FIRST_BYTE, System.nanoTime() - start);
+        return response;
+    }
+
+    @Override
+    protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+            throws IOException, HttpException {
+        AttemptTrace trace = AttemptTrace.of(context);
+        if (trace == null) {
+            return super.doSendRequest(request, conn, context);
+        }
+        Span span = trace.startPhase("request");
+        try {
+            return super.doSendRequest(request, conn, context);
+        } catch (IOException | HttpException e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    @Override
+    protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+            throws IOException, HttpException {
+        AttemptTrace trace = AttemptTrace.of(context);
+        if (trace == null) {
+            return super.doReceiveResponse(request, conn, context);
+        }
+        Span span = trace.startPhase("response");
+        try {
+            return super.doReceiveResponse(request, conn, context);
+        } catch (IOException | HttpException e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
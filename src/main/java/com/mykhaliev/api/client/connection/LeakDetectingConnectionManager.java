@@ -0,0 +1,146 @@
+package com.mykhaliev.api.client.connection;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection manager decorator reporting connections leased from the pool longer than threshold,
+ * together with the stack trace of the code that leased them.
+ */
+public class LeakDetectingConnectionManager implements HttpClientConnectionManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeakDetectingConnectionManager.class);
+
+    private final HttpClientConnectionManager delegate;
+
+    private final long thresholdNanos;
+
+    private final Map<HttpClientConnection, Lease> leases = new ConcurrentHashMap<>();
+
+    private final AtomicInteger leakCount = new AtomicInteger();
+
+    private final ScheduledExecutorService scheduler;
+
+    public LeakDetectingConnectionManager(HttpClientConnectionManager delegate, long thresholdMilliseconds) {
+        this.delegate = delegate;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMilliseconds);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rest-api-client-leak-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, thresholdMilliseconds / 2);
+        scheduler.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Number of leases reported as leaked so far.
+     *
+     * @return leak count
+     */
+    public int getLeakCount() {
+        return leakCount.get();
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = delegate.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                HttpClientConnection connection = request.get(timeout, timeUnit);
+                leases.put(connection, new Lease(route));
+                return connection;
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection connection, Object newState, long validDuration,
+                                  TimeUnit timeUnit) {
+        leases.remove(connection);
+        delegate.releaseConnection(connection, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void connect(HttpClientConnection connection, HttpRoute route, int connectTimeout, HttpContext context)
+            throws IOException {
+        delegate.connect(connection, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(connection, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection connection, HttpRoute route, HttpContext context)
+            throws IOException {
+        delegate.routeComplete(connection, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+        delegate.closeIdleConnections(idleTime, timeUnit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        scheduler.shutdownNow();
+        delegate.shutdown();
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (Lease lease : leases.values()) {
+            long held = now - lease.leasedAt;
+            if (held > thresholdNanos && !lease.reported) {
+                lease.reported = true;
+                leakCount.incrementAndGet();
+                LOGGER.warn("Connection to {} is leased for {} ms and was not released, possible leak",
+                        lease.route.getTargetHost(), TimeUnit.NANOSECONDS.toMillis(held), lease.trace);
+            }
+        }
+    }
+
+    private static class Lease {
+
+        private final HttpRoute route;
+
+        private final long leasedAt = System.nanoTime();
+
+        private final Throwable trace = new Throwable("Connection leased here");
+
+        private volatile boolean reported;
+
+        Lease(HttpRoute route) {
+            this.route = route;
+        }
+    }
+}
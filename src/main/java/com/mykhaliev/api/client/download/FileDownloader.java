@@ -0,0 +1,266 @@
+package com.mykhaliev.api.client.download;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * File download engine writing response body through {@link FileChannel}, without heap copy buffers.
+ * Dropped connections are resumed with Range request from the last written byte. In segmented mode
+ * file is preallocated and byte ranges are fetched in parallel. Content encoding is never negotiated,
+ * ranges and lengths must count bytes of the file itself.
+ */
+public class FileDownloader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileDownloader.class);
+
+    public static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+
+    private static final long TRANSFER_CHUNK = 8 * 1024 * 1024;
+
+    private static final String IDENTITY = "identity";
+
+    private final CloseableHttpClient client;
+
+    private final Supplier<HttpClientContext> contextFactory;
+
+    private final int resumeAttempts;
+
+    private final int segments;
+
+    /**
+     * Creates downloader.
+     *
+     * @param client         http client
+     * @param contextFactory per request context factory
+     * @param resumeAttempts number of resumes after dropped connection, 0 or less never resumes
+     * @param segments       number of parallel segments, 1 or less for single stream
+     */
+    public FileDownloader(CloseableHttpClient client, Supplier<HttpClientContext> contextFactory, int resumeAttempts,
+                          int segments) {
+        this.client = client;
+        this.contextFactory = contextFactory;
+        this.resumeAttempts = Math.max(0, resumeAttempts);
+        this.segments = segments;
+    }
+
+    /**
+     * Downloads url into target file, overwriting it.
+     *
+     * @param url    file url
+     * @param target target file
+     */
+    public void download(String url, Path target) {
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            if (segments > 1) {
+                Probe probe = probe(url);
+                if (probe != null && probe.length >= 2 * MIN_SEGMENT_SIZE) {
+                    downloadSegmented(url, target, probe);
+                    return;
+                }
+            }
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                transfer(url, channel, 0, -1, null);
+            }
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        }
+    }
+
+    private void downloadSegmented(String url, Path target, Probe probe) throws IOException {
+        int count = (int) Math.min(segments, probe.length / MIN_SEGMENT_SIZE);
+        long segmentSize = (probe.length + count - 1) / count;
+        ExecutorService executor = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "rest-api-client-download");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            //preallocate so segments are written in place
+            channel.write(ByteBuffer.allocate(1), probe.length - 1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (long start = 0; start < probe.length; start += segmentSize) {
+                long segmentStart = start;
+                long segmentEnd = Math.min(start + segmentSize, probe.length) - 1;
+                futures.add(executor.submit(() -> {
+                    transfer(url, channel, segmentStart, segmentEnd, probe.validator);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestApiClientException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RestApiClientException) {
+                throw (RestApiClientException) e.getCause();
+            }
+            throw new RestApiClientException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Transfers byte range of url into channel at the same position, resuming after io errors.
+     *
+     * @param url       file url
+     * @param channel   target channel
+     * @param start     first byte
+     * @param end       last byte inclusive, -1 for whole file
+     * @param validator ETag or Last-Modified value for If-Range, null if unknown
+     */
+    private void transfer(String url, FileChannel channel, long start, long end, String validator)
+            throws IOException {
+        long position = start;
+        long last = end;
+        int attempt = 0;
+        while (true) {
+            HttpGet get = new HttpGet(url);
+            get.setHeader(HttpHeaders.ACCEPT_ENCODING, IDENTITY);
+            boolean ranged = position > 0 || end >= 0;
+            if (ranged) {
+                get.setHeader("Range", "bytes=" + position + "-" + (end >= 0 ? end : ""));
+                if (validator != null) {
+                    get.setHeader("If-Range", validator);
+                }
+            }
+            try (CloseableHttpResponse response = client.execute(get, contextFactory.get())) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                HttpEntity entity = response.getEntity();
+                if (statusCode == HttpStatus.SC_PARTIAL_CONTENT) {
+                    long[] contentRange = parseContentRange(response.getFirstHeader("Content-Range"));
+                    if (contentRange[0] != position) {
+                        throw new RestApiClientException("Unexpected Content-Range for " + url);
+                    }
+                    last = contentRange[1];
+                } else if (statusCode == HttpStatus.SC_OK && (!ranged || (start == 0 && end < 0))) {
+                    //server sent whole file, start over
+                    position = 0;
+                    channel.truncate(0);
+                    last = entity == null || entity.getContentLength() < 0 ? -1 : entity.getContentLength() - 1;
+                } else {
+                    throw new RestApiClientException(url, statusCode, null);
+                }
+                if (validator == null) {
+                    validator = validator(response);
+                }
+                if (entity == null) {
+                    return;
+                }
+                try (InputStream content = entity.getContent();
+                     ReadableByteChannel source = Channels.newChannel(content)) {
+                    long transferred;
+                    while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                        position += transferred;
+                    }
+                }
+                if (last >= 0 && position <= last) {
+                    throw new IOException("Premature end of body at byte " + position);
+                }
+                return;
+            } catch (IOException e) {
+                if (++attempt > resumeAttempts) {
+                    throw e;
+                }
+                LOGGER.warn("Download of {} interrupted at byte {}, resuming: {}", url, position, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Finds length and range support with HEAD request.
+     *
+     * @return probe or null if server does not support ranges
+     */
+    private Probe probe(String url) throws IOException {
+        HttpHead head = new HttpHead(url);
+        head.setHeader(HttpHeaders.ACCEPT_ENCODING, IDENTITY);
+        try (CloseableHttpResponse response = client.execute(head, contextFactory.get())) {
+            Header length = response.getFirstHeader("Content-Length");
+            Header ranges = response.getFirstHeader("Accept-Ranges");
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK || length == null || ranges == null
+                    || !ranges.getValue().contains("bytes")) {
+                return null;
+            }
+            return new Probe(Long.parseLong(length.getValue()), validator(response));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String validator(CloseableHttpResponse response) {
+        Header etag = response.getFirstHeader("ETag");
+        if (etag != null && !etag.getValue().startsWith("W/")) {
+            return etag.getValue();
+        }
+        Header lastModified = response.getFirstHeader("Last-Modified");
+        return lastModified == null ? null : lastModified.getValue();
+    }
+
+    /**
+     * Parses "bytes start-end/total" header.
+     *
+     * @return start and end
+     */
+    private static long[] parseContentRange(Header header) {
+        if (header == null) {
+            throw new RestApiClientException("Missing Content-Range in partial response.");
+        }
+        String value = header.getValue().trim();
+        int space = value.indexOf(' ');
+        int dash = value.indexOf('-', space);
+        int slash = value.indexOf('/', dash);
+        try {
+            return new long[]{Long.parseLong(value.substring(space + 1, dash).trim()),
+                    Long.parseLong(value.substring(dash + 1, slash < 0 ? value.length() : slash).trim())};
+        } catch (RuntimeException e) {
+            throw new RestApiClientException("Invalid Content-Range: " + value);
+        }
+    }
+
+    private static class Probe {
+
+        private final long length;
+
+        private final String validator;
+
+        Probe(long length, String validator) {
+            this.length = length;
+            this.validator = validator;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.mykhaliev.api.client.exception;
+
+
+/**
+ * Call rejected without execution, because circuit breaker of its route is open, bulkhead is full
+ * or concurrency limit is reached.
+ */
+public class CallNotPermittedException extends RestApiClientException {
+
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+
+}
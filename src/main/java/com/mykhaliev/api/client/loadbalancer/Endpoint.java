@@ -0,0 +1,126 @@
+package com.mykhaliev.api.client.loadbalancer;
+
+import org.apache.http.HttpHost;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Backend endpoint with the load and health observed by {@link LoadBalancer}.
+ */
+public class Endpoint {
+
+    private static final double LATENCY_SMOOTHING = 0.3;
+
+    private final String url;
+
+    private final HttpHost host;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile double latencyNanos;
+
+    private int consecutiveFailures;
+
+    private int ejections;
+
+    private volatile long ejectedUntilNanos;
+
+    private volatile boolean ejected;
+
+    Endpoint(String url, HttpHost host) {
+        this.url = url;
+        this.host = host;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public HttpHost getHost() {
+        return host;
+    }
+
+    /**
+     * @return requests sent and not answered yet
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * @return exponentially weighted moving average of response latency, 0 before first response
+     */
+    public long getLatencyNanos() {
+        return (long) latencyNanos;
+    }
+
+    /**
+     * @return true if endpoint is ejected and not due for re-admission yet
+     */
+    public boolean isEjected() {
+        return ejected && System.nanoTime() - ejectedUntilNanos < 0;
+    }
+
+    void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    void release() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * Load score for power of two choices, latency weighted by queue the next request would join.
+     */
+    double score() {
+        return (latencyNanos + 1) * (outstanding.get() + 1);
+    }
+
+    /**
+     * Records answered request.
+     *
+     * @param failed          true if response or exception counts as failure
+     * @param durationNanos   request duration
+     * @param failuresToEject consecutive failures ejecting endpoint
+     * @param ejectionNanos   base ejection time, multiplied by consecutive ejections
+     * @return true if endpoint got ejected by this result
+     */
+    boolean onResult(boolean failed, long durationNanos, int failuresToEject, long ejectionNanos) {
+        lock.lock();
+        try {
+            return record(failed, durationNanos, failuresToEject, ejectionNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean record(boolean failed, long durationNanos, int failuresToEject, long ejectionNanos) {
+        //failing fast must not make endpoint look attractive
+        double sample = failed ? Math.max(durationNanos, latencyNanos * 2) : durationNanos;
+        latencyNanos = latencyNanos == 0 ? sample : latencyNanos + LATENCY_SMOOTHING * (sample - latencyNanos);
+        if (!failed) {
+            consecutiveFailures = 0;
+            if (!isEjected()) {
+                ejected = false;
+                ejections = 0;
+            }
+            return false;
+        }
+        if (++consecutiveFailures < failuresToEject || isEjected()) {
+            return false;
+        }
+        //failures are kept, so endpoint failing right after re-admission is ejected again for longer
+        ejections = Math.min(ejections + 1, 10);
+        ejectedUntilNanos = System.nanoTime() + ejectionNanos * ejections;
+        ejected = true;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,227 @@
+package com.mykhaliev.api.client.loadbalancer;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import org.apache.http.HttpHost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Client side load balancer spreading requests over replicas of the api. Endpoints differ only in scheme, host
+ * and port, request path stays the same. Endpoint failing several times in a row is ejected for a while and
+ * re-admitted afterwards, when every endpoint is ejected requests go to all of them.
+ */
+public class LoadBalancer {
+
+    public enum Strategy {
+        ROUND_ROBIN, LEAST_OUTSTANDING, POWER_OF_TWO_CHOICES
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadBalancer.class);
+
+    private final Supplier<List<String>> endpointSupplier;
+
+    private final Strategy strategy;
+
+    private final int failuresToEject;
+
+    private final long ejectionNanos;
+
+    private final long refreshNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final String path;
+
+    private volatile List<Endpoint> endpoints;
+
+    private volatile long refreshedAt;
+
+    /**
+     * @param endpointSupplier endpoint urls, called again every refresh interval on the calling thread
+     * @param serviceUrl       url naming the api, its path is required from endpoints, null to take the first one
+     * @param strategy         endpoint selection strategy
+     * @param failuresToEject  consecutive failures ejecting endpoint
+     * @param ejectionMillis   base ejection time, multiplied by consecutive ejections
+     * @param refreshMillis    endpoint refresh interval, 0 for a fixed list
+     */
+    public LoadBalancer(Supplier<List<String>> endpointSupplier, String serviceUrl, Strategy strategy,
+                        int failuresToEject, long ejectionMillis, long refreshMillis) {
+        this.endpointSupplier = endpointSupplier;
+        this.strategy = strategy;
+        this.failuresToEject = failuresToEject;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMillis);
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+        List<String> urls = endpointSupplier.get();
+        if (urls == null || urls.isEmpty()) {
+            throw new RestApiClientException("At least one endpoint must be specified.");
+        }
+        this.path = pathOf(URI.create(serviceUrl == null ? urls.get(0) : serviceUrl));
+        List<Endpoint> resolved = new ArrayList<>();
+        for (String url : urls) {
+            resolved.add(endpointOf(url));
+        }
+        endpoints = Collections.unmodifiableList(resolved);
+        refreshedAt = System.nanoTime();
+    }
+
+    /**
+     * Picks endpoint for the next request attempt, it must be followed by
+     * {@link #onResult(Endpoint, boolean, long)} or {@link #release(Endpoint)}.
+     *
+     * @return endpoint
+     */
+    public Endpoint select() {
+        refreshIfDue();
+        List<Endpoint> candidates = available(endpoints);
+        Endpoint endpoint;
+        if (candidates.size() == 1) {
+            endpoint = candidates.get(0);
+        } else if (strategy == Strategy.LEAST_OUTSTANDING) {
+            endpoint = leastOutstanding(candidates);
+        } else if (strategy == Strategy.POWER_OF_TWO_CHOICES) {
+            endpoint = powerOfTwoChoices(candidates);
+        } else {
+            endpoint = candidates.get((next.getAndIncrement() & Integer.MAX_VALUE) % candidates.size());
+        }
+        endpoint.acquire();
+        return endpoint;
+    }
+
+    /**
+     * Records answered attempt.
+     *
+     * @param endpoint      endpoint of the attempt
+     * @param failed        true for server error or io failure
+     * @param durationNanos time to response headers or failure
+     */
+    public void onResult(Endpoint endpoint, boolean failed, long durationNanos) {
+        endpoint.release();
+        if (endpoint.onResult(failed, durationNanos, failuresToEject, ejectionNanos)) {
+            LOGGER.warn("Endpoint {} ejected after {} consecutive failures", endpoint, failuresToEject);
+        }
+    }
+
+    /**
+     * Releases attempt which was cancelled without result.
+     *
+     * @param endpoint endpoint of the attempt
+     */
+    public void release(Endpoint endpoint) {
+        endpoint.release();
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    private static List<Endpoint> available(List<Endpoint> endpoints) {
+        List<Endpoint> available = null;
+        for (int i = 0; i < endpoints.size(); i++) {
+            if (endpoints.get(i).isEjected()) {
+                if (available == null) {
+                    available = new ArrayList<>(endpoints.subList(0, i));
+                }
+            } else if (available != null) {
+                available.add(endpoints.get(i));
+            }
+        }
+        //nothing ejected, or everything and ejection is ignored
+        return available == null || available.isEmpty() ? endpoints : available;
+    }
+
+    private static Endpoint leastOutstanding(List<Endpoint> candidates) {
+        //random start spreads ties
+        int start = ThreadLocalRandom.current().nextInt(candidates.size());
+        Endpoint best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            Endpoint endpoint = candidates.get((start + i) % candidates.size());
+            if (best == null || endpoint.getOutstanding() < best.getOutstanding()) {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+
+    private static Endpoint powerOfTwoChoices(List<Endpoint> candidates) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = candidates.get(first);
+        Endpoint b = candidates.get(second);
+        return a.score() <= b.score() ? a : b;
+    }
+
+    private void refreshIfDue() {
+        if (refreshNanos <= 0 || System.nanoTime() - refreshedAt < refreshNanos || !refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (System.nanoTime() - refreshedAt < refreshNanos) {
+                return;
+            }
+            refreshedAt = System.nanoTime();
+            List<String> urls = endpointSupplier.get();
+            if (urls == null || urls.isEmpty()) {
+                LOGGER.warn("Endpoint supplier returned no endpoints, keeping {}", endpoints);
+                return;
+            }
+            //known endpoints keep their load and health
+            Map<String, Endpoint> known = new HashMap<>();
+            for (Endpoint endpoint : endpoints) {
+                known.put(endpoint.getUrl(), endpoint);
+            }
+            List<Endpoint> refreshed = new ArrayList<>();
+            for (String url : urls) {
+                Endpoint endpoint = known.get(url);
+                try {
+                    refreshed.add(endpoint != null ? endpoint : endpointOf(url));
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Skipping endpoint {}: {}", url, e.getMessage());
+                }
+            }
+            if (!refreshed.isEmpty()) {
+                endpoints = Collections.unmodifiableList(refreshed);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Endpoint refresh failed, keeping {}", endpoints, e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Endpoint endpointOf(String url) {
+        URI uri = URI.create(url.trim());
+        if (uri.getHost() == null || uri.getScheme() == null) {
+            throw new RestApiClientException("Endpoint must be an absolute http or https url: " + url);
+        }
+        if (!pathOf(uri).equals(path)) {
+            throw new RestApiClientException("Endpoint " + url + " must have the api path " + path);
+        }
+        return new Endpoint(url, new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme()));
+    }
+
+    private static String pathOf(URI uri) {
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+}
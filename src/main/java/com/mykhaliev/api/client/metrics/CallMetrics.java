@@ -0,0 +1,77 @@
+package com.mykhaliev.api.client.metrics;
+
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Metrics of a single call tagged with its method and route. Shared with connection internals through
+ * http context attribute.
+ */
+public class CallMetrics {
+
+    public static final String CONTEXT_ATTRIBUTE = CallMetrics.class.getName();
+
+    private final MetricsRecorder recorder;
+
+    private final String method;
+
+    private final String route;
+
+    private volatile long requestStart;
+
+    public CallMetrics(MetricsRecorder recorder, String method, String route) {
+        this.recorder = recorder;
+        this.method = method;
+        this.route = route;
+    }
+
+    /**
+     * @param context http context
+     * @return call metrics of the context, null if there are none
+     */
+    public static CallMetrics of(HttpContext context) {
+        if (context == null) {
+            return null;
+        }
+        Object metrics = context.getAttribute(CONTEXT_ATTRIBUTE);
+        return metrics instanceof CallMetrics ? (CallMetrics) metrics : null;
+    }
+
+    public void recordTime(MetricsRecorder.Phase phase, long durationNanos) {
+        recorder.recordTime(method, route, phase, durationNanos);
+    }
+
+    public void recordStatus(int statusCode) {
+        recorder.recordStatus(method, route, statusCode);
+    }
+
+    public void recordRetry() {
+        recorder.recordRetry(method, route);
+    }
+
+    public void recordRequestSize(long bytes) {
+        if (bytes >= 0) {
+            recorder.recordRequestSize(method, route, bytes);
+        }
+    }
+
+    public void recordResponseSize(long bytes) {
+        recorder.recordResponseSize(method, route, bytes);
+    }
+
+    /**
+     * Marks request start of attempt, when the time to first byte cannot be measured around execution.
+     */
+    public void onRequestStart() {
+        requestStart = System.nanoTime();
+    }
+
+    /**
+     * Records time to first byte since {@link #onRequestStart()}.
+     */
+    public void onResponseStart() {
+        long start = requestStart;
+        if (start != 0) {
+            recordTime(MetricsRecorder.Phase.TIME_TO_FIRST_BYTE, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.mykhaliev.api.client.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Sink for client metrics, e.g. an adapter to Micrometer registry. Calls are tagged with request method and
+ * route template, see {@link com.mykhaliev.api.client.resilience.RouteGuards#routeOf(java.net.URI)}.
+ * Methods are called on the hot path and must not block, all of them do nothing by default.
+ */
+public interface MetricsRecorder {
+
+    MetricsRecorder NOOP = new MetricsRecorder() {
+    };
+
+    /**
+     * Timed phases of a call.
+     */
+    enum Phase {
+        /**
+         * Socket connect including tls handshake, recorded only when a new connection is opened.
+         */
+        CONNECT,
+        /**
+         * Sending request until response headers are received, on async client it includes waiting
+         * for a connection.
+         */
+        TIME_TO_FIRST_BYTE,
+        /**
+         * Time spent reading response body.
+         */
+        BODY_READ,
+        /**
+         * Time spent deserializing response body.
+         */
+        DESERIALIZE,
+        /**
+         * Whole call including retries.
+         */
+        TOTAL
+    }
+
+    default void recordTime(String method, String route, Phase phase, long durationNanos) {
+    }
+
+    default void recordStatus(String method, String route, int statusCode) {
+    }
+
+    default void recordRetry(String method, String route) {
+    }
+
+    default void recordRequestSize(String method, String route, long bytes) {
+    }
+
+    default void recordResponseSize(String method, String route, long bytes) {
+    }
+
+    /**
+     * Registers connection pool gauge.
+     *
+     * @param name  pool.leased, pool.available or pool.pending
+     * @param pool  sync or async
+     * @param value gauge value supplier
+     */
+    default void registerGauge(String name, String pool, LongSupplier value) {
+    }
+}
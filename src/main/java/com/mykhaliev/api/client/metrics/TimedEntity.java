@@ -0,0 +1,58 @@
+package com.mykhaliev.api.client.metrics;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Entity counting bytes read from content and time spent waiting for them, so reading can be told apart
+ * from deserializing.
+ */
+public class TimedEntity extends HttpEntityWrapper {
+
+    private long readNanos;
+
+    private long byteCount;
+
+    public TimedEntity(HttpEntity wrappedEntity) {
+        super(wrappedEntity);
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return new FilterInputStream(super.getContent()) {
+            @Override
+            public int read() throws IOException {
+                long start = System.nanoTime();
+                int b = super.read();
+                readNanos += System.nanoTime() - start;
+                if (b >= 0) {
+                    byteCount++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                long start = System.nanoTime();
+                int read = super.read(b, off, len);
+                readNanos += System.nanoTime() - start;
+                if (read > 0) {
+                    byteCount += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mykhaliev.api.client.model.api;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Result of single item of batch operation, holds either result or error.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult<K, T> {
+
+    private K item;
+
+    private T result;
+
+    private RestApiClientException error;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mykhaliev.api.client.model.api;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+/**
+ * Single part of multipart request, content is either a file of known length or a stream written out chunked.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartPart {
+
+    private String name;
+
+    private String fileName;
+
+    private String contentType;
+
+    private File file;
+
+    private InputStream content;
+
+    public static MultipartPart of(String name, File file) {
+        return new MultipartPart(name, file.getName(), null, file, null);
+    }
+
+    public static MultipartPart of(String name, Path path) {
+        if (path.getFileSystem() == FileSystems.getDefault()) {
+            return of(name, path.toFile());
+        }
+        try {
+            return of(name, String.valueOf(path.getFileName()), Files.newInputStream(path));
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        }
+    }
+
+    /**
+     * Part streamed from input stream of unknown length, stream is closed once written.
+     */
+    public static MultipartPart of(String name, String fileName, InputStream content) {
+        return new MultipartPart(name, fileName, null, null, content);
+    }
+
+    /**
+     * Part streamed from channel of unknown length, channel is closed once written.
+     */
+    public static MultipartPart of(String name, String fileName, ReadableByteChannel content) {
+        return of(name, fileName, Channels.newInputStream(content));
+    }
+}
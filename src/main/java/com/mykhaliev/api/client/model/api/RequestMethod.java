@@ -4,5 +4,20 @@ package com.mykhaliev.api.client.model.api;
  * Http methods enum.
  */
 public enum RequestMethod {
-    GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS, TRACE;
+    GET(true), HEAD(true), POST(false), PUT(true), PATCH(false), DELETE(true), OPTIONS(true), TRACE(true);
+
+    private final boolean idempotent;
+
+    RequestMethod(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * Repeating idempotent request has the same effect as sending it once.
+     *
+     * @return true for idempotent method
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
 }
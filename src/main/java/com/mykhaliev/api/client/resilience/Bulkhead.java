@@ -0,0 +1,38 @@
+package com.mykhaliev.api.client.resilience;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps concurrent calls of one route, so a slow route cannot take every pooled connection.
+ * Calls over the limit are rejected instead of queued.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrentCalls;
+
+    private final Semaphore permits;
+
+    public Bulkhead(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    /**
+     * @return true if call may proceed, it must be followed by {@link #release()}
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getAvailableCalls() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,240 @@
+package com.mykhaliev.api.client.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count based circuit breaker. Opens when failure or slow call rate over the last calls crosses threshold,
+ * rejects calls while open, then lets a few trial calls through to decide whether to close again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Observer of breaker state transitions, called outside of breaker lock.
+     */
+    public interface Listener {
+
+        void onStateTransition(String route, State from, State to);
+    }
+
+    private final String route;
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallDurationNanos;
+
+    private final int minimumCalls;
+
+    private final long openDurationNanos;
+
+    private final int halfOpenCalls;
+
+    private final Listener listener;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean[] failed;
+
+    private final boolean[] slow;
+
+    private int index;
+
+    private int calls;
+
+    private int failures;
+
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private int halfOpenPermits;
+
+    /**
+     * @param route                  route the breaker guards
+     * @param failureRateThreshold   failure percentage opening the breaker
+     * @param slowCallRateThreshold  slow call percentage opening the breaker, 0 to ignore slow calls
+     * @param slowCallDurationMillis duration above which call is slow
+     * @param windowSize             number of last calls rates are computed over
+     * @param minimumCalls           calls required before rates are evaluated
+     * @param openDurationMillis     time breaker stays open before trial calls
+     * @param halfOpenCalls          trial calls in half open state
+     * @param listener               state transition listener, may be null
+     */
+    public CircuitBreaker(String route, int failureRateThreshold, int slowCallRateThreshold,
+                          long slowCallDurationMillis, int windowSize, int minimumCalls, long openDurationMillis,
+                          int halfOpenCalls, Listener listener) {
+        this.route = route;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMillis);
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenCalls = Math.min(halfOpenCalls, windowSize);
+        this.listener = listener;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    /**
+     * Asks for permission to make a call, open breaker moves to half open once open duration is over.
+     *
+     * @return true if call may proceed, it must be followed by {@link #onResult} or {@link #releasePermission}
+     */
+    public boolean tryAcquirePermission() {
+        State from = null;
+        lock.lock();
+        try {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openDurationNanos) {
+                    return false;
+                }
+                from = transitionTo(State.HALF_OPEN);
+            }
+            if (halfOpenPermits <= 0) {
+                return false;
+            }
+            halfOpenPermits--;
+            return true;
+        } finally {
+            lock.unlock();
+            notifyListener(from, State.HALF_OPEN);
+        }
+    }
+
+    /**
+     * Returns permission of call which did not complete, e.g. cancelled one.
+     */
+    public void releasePermission() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && halfOpenPermits + calls < halfOpenCalls) {
+                halfOpenPermits++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records outcome of permitted call.
+     *
+     * @param failure       true if call failed
+     * @param durationNanos call duration
+     */
+    public void onResult(boolean failure, long durationNanos) {
+        State from = null;
+        State to = null;
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                //call started before breaker opened
+                return;
+            }
+            record(failure, durationNanos >= slowCallDurationNanos);
+            if (state == State.CLOSED && calls >= minimumCalls && isAboveThreshold()) {
+                to = State.OPEN;
+            } else if (state == State.HALF_OPEN && calls >= halfOpenCalls) {
+                to = isAboveThreshold() ? State.OPEN : State.CLOSED;
+            }
+            if (to != null) {
+                from = transitionTo(to);
+            }
+        } finally {
+            lock.unlock();
+            notifyListener(from, to);
+        }
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Failure percentage over calls recorded in current state.
+     *
+     * @return failure rate, -1 if there are not enough calls yet
+     */
+    public float getFailureRate() {
+        lock.lock();
+        try {
+            return calls < minimumCalls || calls == 0 ? -1 : failures * 100f / calls;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Slow call percentage over calls recorded in current state.
+     *
+     * @return slow call rate, -1 if there are not enough calls yet
+     */
+    public float getSlowCallRate() {
+        lock.lock();
+        try {
+            return calls < minimumCalls || calls == 0 ? -1 : slowCalls * 100f / calls;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure, boolean slowCall) {
+        if (calls == failed.length) {
+            //window is full, oldest outcome is replaced
+            failures -= failed[index] ? 1 : 0;
+            slowCalls -= slow[index] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failed[index] = failure;
+        slow[index] = slowCall;
+        failures += failure ? 1 : 0;
+        slowCalls += slowCall ? 1 : 0;
+        index = (index + 1) % failed.length;
+    }
+
+    private boolean isAboveThreshold() {
+        return failures * 100 >= failureRateThreshold * calls
+                || slowCallRateThreshold > 0 && slowCalls * 100 >= slowCallRateThreshold * calls;
+    }
+
+    private State transitionTo(State to) {
+        State from = state;
+        state = to;
+        index = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+        if (to == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (to == State.HALF_OPEN) {
+            halfOpenPermits = halfOpenCalls;
+        }
+        return from;
+    }
+
+    private void notifyListener(State from, State to) {
+        if (listener != null && from != null) {
+            listener.onStateTransition(route, from, to);
+        }
+    }
+}
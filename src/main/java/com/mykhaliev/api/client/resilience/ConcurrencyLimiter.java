@@ -0,0 +1,259 @@
+package com.mykhaliev.api.client.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit of concurrent attempts of one route, found from measured round trip time and failures
+ * instead of guessed upfront. AIMD grows the limit by one per round of calls and cuts it when a call fails
+ * or takes longer than latency threshold. Gradient compares latency of each round of calls with no load latency,
+ * the lowest one seen, and shrinks the limit as soon as requests start to queue at the server. Failures cut it
+ * as in AIMD. Early on and then every few dozen rounds gradient drops the limit to its square root for a round
+ * to measure no load latency again.
+ * Calls over the limit wait for a free slot up to queue timeout, then they are rejected.
+ */
+public class ConcurrencyLimiter {
+
+    public enum Algorithm {
+        AIMD, GRADIENT
+    }
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    //latency of a round may exceed no load latency by this much before the limit shrinks
+    private static final double GRADIENT_TOLERANCE = 1.5;
+
+    private static final double GRADIENT_SMOOTHING = 0.2;
+
+    private static final int PROBE_WINDOWS = 50;
+
+    //first rounds include connection setup and warm up, so the first probe comes early
+    private static final int FIRST_PROBE_WINDOW = 5;
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final String route;
+
+    private final Algorithm algorithm;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyThresholdNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+
+    private int inFlight;
+
+    private long lastDecreaseNanos;
+
+    private long noLoadRttNanos;
+
+    private int windows;
+
+    private int skipSamples;
+
+    private long windowRttNanos;
+
+    private long windowMinRttNanos = Long.MAX_VALUE;
+
+    private int windowSamples;
+
+    private int windowMaxInFlight;
+
+    /**
+     * @param route                  route the limiter guards
+     * @param algorithm              limit algorithm
+     * @param initialLimit           limit until the first adjustment
+     * @param minLimit               lowest limit
+     * @param maxLimit               highest limit
+     * @param latencyThresholdMillis call duration counted as failure by AIMD
+     */
+    public ConcurrencyLimiter(String route, Algorithm algorithm, int initialLimit, int minLimit, int maxLimit,
+                              long latencyThresholdMillis) {
+        this.route = route;
+        this.algorithm = algorithm;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Asks for a slot without waiting.
+     *
+     * @return true if call may proceed, it must be followed by {@link #onResult} or {@link #release}
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Asks for a slot, waiting for one up to timeout.
+     *
+     * @param timeout  maximum wait
+     * @param timeUnit unit of timeout
+     * @return true if call may proceed, it must be followed by {@link #onResult} or {@link #release}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tryAcquire(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        long remaining = timeUnit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns slot of call which did not complete, e.g. cancelled one, limit is left as is.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records outcome of permitted call and adjusts the limit.
+     *
+     * @param failure  true if call failed or was throttled by the server
+     * @param rttNanos time to response or failure
+     */
+    public void onResult(boolean failure, long rttNanos) {
+        lock.lock();
+        try {
+            int previous = (int) limit;
+            if (algorithm == Algorithm.AIMD) {
+                aimd(failure || rttNanos > latencyThresholdNanos, rttNanos);
+            } else {
+                gradient(failure, rttNanos);
+            }
+            inFlight--;
+            if ((int) limit > previous) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void aimd(boolean drop, long rttNanos) {
+        if (drop) {
+            backOff(rttNanos);
+        } else if (inFlight * 2 >= limit) {
+            //one more slot per round of calls, unless the caller does not use half of them anyway
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private void gradient(boolean failure, long rttNanos) {
+        if (failure) {
+            //fast failures would pass for low latency
+            backOff(rttNanos);
+            return;
+        }
+        if (skipSamples > 0) {
+            //sent before probe, queued behind the old limit
+            skipSamples--;
+            return;
+        }
+        windowRttNanos += rttNanos;
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        //window of about one round of calls
+        if (windowSamples < Math.max(MIN_WINDOW_SAMPLES, (int) limit)) {
+            return;
+        }
+        double roundRttNanos = (double) windowRttNanos / windowSamples;
+        long minRttNanos = windowMinRttNanos;
+        int maxInFlight = windowMaxInFlight;
+        windowRttNanos = 0;
+        windowMinRttNanos = Long.MAX_VALUE;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        if (noLoadRttNanos == 0) {
+            //first round, or the one after probe
+            noLoadRttNanos = minRttNanos;
+            return;
+        }
+        noLoadRttNanos = Math.min(noLoadRttNanos, minRttNanos);
+        if (maxInFlight * 2 < limit) {
+            //caller using less than half of the slots tells nothing about the limit
+            return;
+        }
+        if (++windows % PROBE_WINDOWS == FIRST_PROBE_WINDOW) {
+            //steady queue at the server inflates every sample, let it drain
+            noLoadRttNanos = 0;
+            skipSamples = inFlight - 1;
+            limit = Math.max(minLimit, Math.sqrt(limit));
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, GRADIENT_TOLERANCE * noLoadRttNanos / roundRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.min(maxLimit, Math.max(minLimit, limit * (1 - GRADIENT_SMOOTHING) + target * GRADIENT_SMOOTHING));
+    }
+
+    private void backOff(long rttNanos) {
+        //calls sent before the last decrease already saw the old limit, one cut per round of calls
+        long now = System.nanoTime();
+        if (now - rttNanos - lastDecreaseNanos < 0) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+}
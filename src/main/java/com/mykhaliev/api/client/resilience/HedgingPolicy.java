@@ -0,0 +1,137 @@
+package com.mykhaliev.api.client.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hedging of idempotent requests. When the first attempt has not answered within hedge delay, another attempt
+ * is sent and the first response wins. Delay is either fixed or derived from recent latency percentile of the route,
+ * so only the slowest requests are hedged. Hedges are drawn from a budget the same way retries are.
+ */
+public class HedgingPolicy {
+
+    private static final int WINDOW_SIZE = 200;
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final long delayMillis;
+
+    private final int percentile;
+
+    private final RetryBudget budget;
+
+    private final ConcurrentHashMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * @param delayMillis fixed hedge delay, 0 to derive it from latency percentile
+     * @param percentile  latency percentile of the route to use as hedge delay
+     * @param budget      hedge budget, null for unlimited hedging
+     */
+    public HedgingPolicy(long delayMillis, int percentile, RetryBudget budget) {
+        this.delayMillis = delayMillis;
+        this.percentile = Math.min(100, Math.max(1, percentile));
+        this.budget = budget;
+    }
+
+    /**
+     * Records original request in hedge budget.
+     */
+    public void onRequest() {
+        if (budget != null) {
+            budget.deposit();
+        }
+    }
+
+    /**
+     * Hedge delay of route.
+     *
+     * @param route request route
+     * @return delay in milliseconds, -1 while there are not enough latency samples
+     */
+    public long hedgeDelay(String route) {
+        if (delayMillis > 0) {
+            return delayMillis;
+        }
+        LatencyWindow window = latencies.get(route);
+        long latency = window == null ? -1 : window.percentile(percentile);
+        return latency < 0 ? -1 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(latency));
+    }
+
+    /**
+     * Takes one hedge from the budget.
+     *
+     * @return true if hedge is allowed
+     */
+    public boolean tryHedge() {
+        return budget == null || budget.tryWithdraw();
+    }
+
+    /**
+     * Records latency of answered request.
+     *
+     * @param route         request route
+     * @param durationNanos time from request start to the first response, hedged or not
+     */
+    public void onLatency(String route, long durationNanos) {
+        LatencyWindow window = latencies.get(route);
+        if (window == null) {
+            window = latencies.computeIfAbsent(route, key -> new LatencyWindow());
+        }
+        window.record(durationNanos);
+    }
+
+    /**
+     * Latest latencies of a route, percentile is recomputed every tenth of the window.
+     */
+    private static class LatencyWindow {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final long[] samples = new long[WINDOW_SIZE];
+
+        private int next;
+
+        private int count;
+
+        //written under lock, read without it with cached percentile
+        private volatile int sinceComputed;
+
+        private volatile long cachedPercentile = -1;
+
+        void record(long durationNanos) {
+            lock.lock();
+            try {
+                samples[next] = durationNanos;
+                next = (next + 1) % WINDOW_SIZE;
+                count = Math.min(WINDOW_SIZE, count + 1);
+                sinceComputed++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long percentile(int percentile) {
+            long cached = cachedPercentile;
+            if (cached >= 0 && sinceComputed < WINDOW_SIZE / 10) {
+                return cached;
+            }
+            long[] sorted;
+            lock.lock();
+            try {
+                if (count < MIN_SAMPLES) {
+                    return -1;
+                }
+                sorted = Arrays.copyOf(samples, count);
+                sinceComputed = 0;
+            } finally {
+                lock.unlock();
+            }
+            Arrays.sort(sorted);
+            cached = sorted[Math.max(0, (int) Math.ceil(sorted.length * percentile / 100.0) - 1)];
+            cachedPercentile = cached;
+            return cached;
+        }
+    }
+}
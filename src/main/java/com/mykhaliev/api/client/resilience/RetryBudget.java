@@ -0,0 +1,84 @@
+package com.mykhaliev.api.client.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client wide limit of retries. Every request deposits a fraction of a retry, every retry withdraws a whole one,
+ * so retries add at most that fraction of load on top of regular traffic during an outage. A small number of
+ * retries per second is always allowed for clients with low traffic.
+ */
+public class RetryBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long deposit;
+
+    private final long maxBalance;
+
+    private final int minPerSecond;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    private final AtomicLong reserveSecond = new AtomicLong();
+
+    private final AtomicInteger reserveUsed = new AtomicInteger();
+
+    /**
+     * @param percent      retries allowed per hundred requests
+     * @param minPerSecond retries allowed every second regardless of traffic
+     */
+    public RetryBudget(int percent, int minPerSecond) {
+        this.deposit = percent * UNIT / 100;
+        //balance accumulated over last hundred requests at most
+        this.maxBalance = Math.max(UNIT, deposit * 100);
+        this.minPerSecond = minPerSecond;
+    }
+
+    /**
+     * Records original request, retries are not deposited.
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + deposit)));
+    }
+
+    /**
+     * Takes one retry from the budget.
+     *
+     * @return true if retry is allowed
+     */
+    public boolean tryWithdraw() {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long window = reserveSecond.get();
+        if (window != second && reserveSecond.compareAndSet(window, second)) {
+            reserveUsed.set(0);
+        }
+        if (reserveUsed.get() < minPerSecond && reserveUsed.incrementAndGet() <= minPerSecond) {
+            return true;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+
+    /**
+     * Retries currently available on top of per second reserve.
+     *
+     * @return available retries
+     */
+    public long getAvailable() {
+        return balance.get() / UNIT;
+    }
+}
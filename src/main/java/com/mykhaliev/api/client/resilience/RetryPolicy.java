@@ -0,0 +1,188 @@
+package com.mykhaliev.api.client.resilience;
+
+import com.mykhaliev.api.client.model.api.RequestMethod;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether and when failed request is retried. Delay grows exponentially with equal jitter,
+ * so clients failing together do not retry together, Retry-After of the response is honoured.
+ */
+public class RetryPolicy {
+
+    public static final Set<Integer> DEFAULT_STATUS_CODES = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(401, 429, 502, 503, 504)));
+
+    public static final List<Class<? extends Exception>> DEFAULT_EXCEPTIONS = Collections.unmodifiableList(
+            Arrays.asList(ConnectException.class, ConnectTimeoutException.class, NoHttpResponseException.class,
+                    SocketTimeoutException.class));
+
+    //statuses of requests refused before processing, safe to retry whatever the method
+    private static final Set<Integer> NOT_PROCESSED_STATUS_CODES = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(401, 429, 503)));
+
+    private final int maxRetries;
+
+    private final long baseDelayMillis;
+
+    private final long maxDelayMillis;
+
+    private final Set<Integer> statusCodes;
+
+    private final List<Class<? extends Exception>> exceptions;
+
+    private final RetryBudget budget;
+
+    /**
+     * @param maxRetries      retries on top of the first attempt
+     * @param baseDelayMillis delay before first retry, doubled for every next one
+     * @param maxDelayMillis  delay cap, longer Retry-After fails the request instead of waiting
+     * @param statusCodes     retryable response statuses, null for defaults
+     * @param exceptions      retryable exceptions, null for defaults
+     * @param budget          client wide retry budget, null for unlimited
+     */
+    public RetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis, Collection<Integer> statusCodes,
+                       List<Class<? extends Exception>> exceptions, RetryBudget budget) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.statusCodes = statusCodes == null ? DEFAULT_STATUS_CODES : new HashSet<>(statusCodes);
+        this.exceptions = exceptions == null ? DEFAULT_EXCEPTIONS : exceptions;
+        this.budget = budget;
+    }
+
+    /**
+     * Records original request execution in retry budget.
+     */
+    public void onRequest() {
+        if (budget != null) {
+            budget.deposit();
+        }
+    }
+
+    /**
+     * Delay before retrying request which got response. Requests the server may have processed, e.g. ones
+     * answered with 502 or 504, are retried only when idempotent.
+     *
+     * @param request        http request
+     * @param response       http response
+     * @param executionCount attempts done so far
+     * @return delay in milliseconds, negative if request must not be retried
+     */
+    public long retryDelay(HttpRequest request, HttpResponse response, int executionCount) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (executionCount > maxRetries || !statusCodes.contains(statusCode) || !isRepeatable(request)) {
+            return -1;
+        }
+        if (!NOT_PROCESSED_STATUS_CODES.contains(statusCode) && !isIdempotent(request)) {
+            return -1;
+        }
+        long delay = backoff(executionCount);
+        long retryAfter = retryAfterMillis(response);
+        if (retryAfter > maxDelayMillis) {
+            return -1;
+        }
+        delay = Math.max(delay, retryAfter);
+        return withdraw() ? delay : -1;
+    }
+
+    /**
+     * Delay before retrying request which failed with exception. Requests that may have reached the server are
+     * retried only when idempotent.
+     *
+     * @param request        http request
+     * @param e              execution failure
+     * @param executionCount attempts done so far
+     * @return delay in milliseconds, negative if request must not be retried
+     */
+    public long retryDelay(HttpRequest request, Exception e, int executionCount) {
+        if (executionCount > maxRetries || !isRetryable(e) || !isRepeatable(request)) {
+            return -1;
+        }
+        boolean notSent = e instanceof ConnectException || e instanceof ConnectTimeoutException;
+        if (!notSent && !isIdempotent(request)) {
+            return -1;
+        }
+        return withdraw() ? backoff(executionCount) : -1;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    private boolean isRetryable(Exception e) {
+        for (Class<? extends Exception> type : exceptions) {
+            if (type.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean withdraw() {
+        return budget == null || budget.tryWithdraw();
+    }
+
+    /**
+     * Exponential delay with equal jitter, half of it is fixed and half is random.
+     */
+    private long backoff(int executionCount) {
+        int shift = Math.min(executionCount - 1, 30);
+        long delay = Math.min(maxDelayMillis, baseDelayMillis << shift);
+        if (delay <= 1) {
+            return delay;
+        }
+        long half = delay / 2;
+        return delay - half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * Retry-After in delay seconds or http date form.
+     *
+     * @param response http response
+     * @return delay in milliseconds, 0 if not present
+     */
+    static long retryAfterMillis(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null) {
+            return 0;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date == null ? 0 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        return RequestMethod.valueOf(request.getRequestLine().getMethod()).isIdempotent();
+    }
+
+    private static boolean isRepeatable(HttpRequest request) {
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            return entity == null || entity.isRepeatable();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+package com.mykhaliev.api.client.resilience;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Circuit breakers, bulkheads and concurrency limiters keyed by route, which is host and path template of the request.
+ * Identifiers in path are replaced with placeholder, so all pets share route of {@code /pets/{id}}. Segments that are
+ * not numbers, uuids or hex strings, e.g. user names, make a route each, so callers cap the number of routes and
+ * send the rest to {@link #overflowRouteOf}.
+ */
+public class RouteGuards {
+
+    private static final String ID_PLACEHOLDER = "{id}";
+
+    private static final String OVERFLOW_PATH = "/{other}";
+
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-fA-F]{16,}");
+
+    private final Function<String, CircuitBreaker> circuitBreakerFactory;
+
+    private final int bulkheadMaxConcurrentCalls;
+
+    private final Function<String, ConcurrencyLimiter> concurrencyLimiterFactory;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private final Map<String, ConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * @param circuitBreakerFactory      creates breaker for route, null to disable breakers
+     * @param bulkheadMaxConcurrentCalls concurrent calls per route, 0 to disable bulkheads
+     * @param concurrencyLimiterFactory  creates concurrency limiter for route, null to disable limiters
+     */
+    public RouteGuards(Function<String, CircuitBreaker> circuitBreakerFactory, int bulkheadMaxConcurrentCalls,
+                       Function<String, ConcurrencyLimiter> concurrencyLimiterFactory) {
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.bulkheadMaxConcurrentCalls = bulkheadMaxConcurrentCalls;
+        this.concurrencyLimiterFactory = concurrencyLimiterFactory;
+    }
+
+    /**
+     * Route of request uri, query is not part of it.
+     *
+     * @param uri request uri
+     * @return host, port and path template
+     */
+    public static String routeOf(URI uri) {
+        String path = uri.getRawPath();
+        StringBuilder route = hostOf(uri);
+        if (path == null || path.isEmpty()) {
+            return route.append('/').toString();
+        }
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start + 1);
+            if (end < 0) {
+                end = path.length();
+            }
+            String segment = path.substring(start + 1, end);
+            route.append('/').append(ID_SEGMENT.matcher(segment).matches() ? ID_PLACEHOLDER : segment);
+            start = end;
+        }
+        return route.toString();
+    }
+
+    /**
+     * Route shared by all paths of the host, for requests over route limit.
+     *
+     * @param uri request uri
+     * @return host, port and overflow path
+     */
+    public static String overflowRouteOf(URI uri) {
+        return hostOf(uri).append(OVERFLOW_PATH).toString();
+    }
+
+    private static StringBuilder hostOf(URI uri) {
+        StringBuilder host = new StringBuilder(uri.getHost() == null ? "" : uri.getHost());
+        if (uri.getPort() >= 0) {
+            host.append(':').append(uri.getPort());
+        }
+        return host;
+    }
+
+    /**
+     * @param route request route
+     * @return breaker of the route, null if breakers are disabled
+     */
+    public CircuitBreaker circuitBreaker(String route) {
+        return circuitBreakerFactory == null ? null
+                : circuitBreakers.computeIfAbsent(route, circuitBreakerFactory);
+    }
+
+    /**
+     * @param route request route
+     * @return bulkhead of the route, null if bulkheads are disabled
+     */
+    public Bulkhead bulkhead(String route) {
+        return bulkheadMaxConcurrentCalls <= 0 ? null
+                : bulkheads.computeIfAbsent(route, key -> new Bulkhead(bulkheadMaxConcurrentCalls));
+    }
+
+    /**
+     * @param route request route
+     * @return concurrency limiter of the route, null if limiters are disabled
+     */
+    public ConcurrencyLimiter concurrencyLimiter(String route) {
+        return concurrencyLimiterFactory == null ? null
+                : concurrencyLimiters.computeIfAbsent(route, concurrencyLimiterFactory);
+    }
+
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    public Map<String, Bulkhead> getBulkheads() {
+        return Collections.unmodifiableMap(bulkheads);
+    }
+
+    public Map<String, ConcurrencyLimiter> getConcurrencyLimiters() {
+        return Collections.unmodifiableMap(concurrencyLimiters);
+    }
+}
@@ -0,0 +1,178 @@
+package com.mykhaliev.api.client.stream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.AbstractRestClient;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.Response;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterator over all pages of list endpoint, driven by limit/skip/total of response envelope.
+ * With total known iteration ends once it is reached, otherwise at the first short page.
+ * Up to prefetch pages are requested in parallel ahead of the consumer, elements keep page order.
+ */
+public class Paginator<T> implements Iterator<T>, Closeable {
+
+    private final AbstractRestClient client;
+
+    private final String path;
+
+    private final TypeReference<Response<List<T>>> pageType;
+
+    private final int prefetch;
+
+    private final Deque<CompletableFuture<Response<List<T>>>> pages = new ArrayDeque<>();
+
+    private final Deque<Long> pageSkips = new ArrayDeque<>();
+
+    private int pageSize;
+
+    private long nextSkip;
+
+    private Long total;
+
+    private boolean firstPage = true;
+
+    private boolean lastPage;
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    /**
+     * Creates paginator and requests first page.
+     *
+     * @param client   rest client
+     * @param path     list endpoint path
+     * @param pageType page response type
+     * @param pageSize requested page size, lowered to limit returned by server
+     * @param prefetch max number of pages requested in parallel
+     */
+    public Paginator(AbstractRestClient client, String path, TypeReference<Response<List<T>>> pageType,
+                     int pageSize, int prefetch) {
+        if (pageSize <= 0 || prefetch <= 0) {
+            throw new RestApiClientException("Page size and prefetch must be positive.");
+        }
+        this.client = client;
+        this.path = path;
+        this.pageType = pageType;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+        requestPage();
+    }
+
+    /**
+     * Total number of elements reported by server.
+     *
+     * @return total or null if first page is not read yet or server does not report it
+     */
+    public Long getTotal() {
+        return total;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (pages.isEmpty()) {
+                return false;
+            }
+            long pageSkip = pageSkips.poll();
+            Response<List<T>> page = await(pages.poll());
+            List<T> result = page.getResult() == null ? Collections.<T>emptyList() : page.getResult();
+            if (firstPage) {
+                firstPage = false;
+                total = page.getTotal();
+            }
+            boolean capped = page.getLimit() != null && page.getLimit() > 0 && page.getLimit() < pageSize;
+            if (capped) {
+                pageSize = page.getLimit();
+            }
+            if (total == null ? result.size() < pageSize : result.isEmpty() || pageSkip + result.size() >= total) {
+                lastPage = true;
+                close();
+            } else if (capped || result.size() < pageSize) {
+                //pages requested ahead would leave a gap, page size only follows limit reported by server
+                //as a short page may just follow a concurrent deletion
+                cancelPages();
+                nextSkip = pageSkip + result.size();
+            }
+            current = result.iterator();
+            fill();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Sequential stream over all elements, closing it cancels prefetched pages.
+     *
+     * @return stream of elements
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Cancels pages requested ahead of the consumer.
+     */
+    @Override
+    public void close() {
+        lastPage = true;
+        cancelPages();
+    }
+
+    private void cancelPages() {
+        for (CompletableFuture<Response<List<T>>> page : pages) {
+            page.cancel(true);
+        }
+        pages.clear();
+        pageSkips.clear();
+    }
+
+    /**
+     * Keeps prefetch window full until the last page is known.
+     */
+    private void fill() {
+        while (!lastPage && pages.size() < prefetch && (total == null || nextSkip < total)) {
+            requestPage();
+        }
+    }
+
+    private void requestPage() {
+        String separator = path.indexOf('?') < 0 ? "?" : "&";
+        pages.add(client.getAsync(path + separator + "limit=" + pageSize + "&skip=" + nextSkip, pageType));
+        pageSkips.add(nextSkip);
+        nextSkip += pageSize;
+    }
+
+    private Response<List<T>> await(CompletableFuture<Response<List<T>>> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RestApiClientException) {
+                throw (RestApiClientException) e.getCause();
+            }
+            throw new RestApiClientException(e.getCause());
+        }
+    }
+}
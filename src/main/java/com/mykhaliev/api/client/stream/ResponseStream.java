@@ -0,0 +1,185 @@
+package com.mykhaliev.api.client.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.Response;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterator over "result" array of api response, elements are parsed one by one as bytes arrive.
+ * Envelope fields are complete once iteration finishes, the underlying response is released at that point
+ * or on {@link #close()}.
+ */
+public class ResponseStream<T> implements Iterator<T>, Closeable {
+
+    private static final String RESULT_FIELD = "result";
+
+    private final JsonParser parser;
+
+    private final ObjectReader elementReader;
+
+    private final Closeable resource;
+
+    private final Response<Void> envelope = new Response<>();
+
+    private T next;
+
+    private boolean nextReady;
+
+    private boolean inResult;
+
+    private boolean closed;
+
+    /**
+     * Creates stream and reads envelope up to the first element.
+     *
+     * @param parser        parser over response body
+     * @param elementReader reader for single element
+     * @param resource      resource to release when stream is finished or closed
+     */
+    public ResponseStream(JsonParser parser, ObjectReader elementReader, Closeable resource) {
+        this.parser = parser;
+        this.elementReader = elementReader;
+        this.resource = resource;
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RestApiClientException("Response body must be json object.");
+            }
+            readEnvelope();
+            if (!inResult) {
+                close();
+            }
+        } catch (IOException e) {
+            close();
+            throw new RestApiClientException(e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Response envelope, result is always null.
+     *
+     * @return apiVersion, limit, skip and total read so far
+     */
+    public Response<Void> getEnvelope() {
+        return envelope;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextReady) {
+            return true;
+        }
+        if (!inResult) {
+            return false;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                inResult = false;
+                readEnvelope();
+                close();
+                return false;
+            }
+            next = elementReader.readValue(parser);
+            nextReady = true;
+            return true;
+        } catch (IOException e) {
+            close();
+            throw new RestApiClientException(e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T element = next;
+        next = null;
+        nextReady = false;
+        return element;
+    }
+
+    /**
+     * Sequential stream over remaining elements, closing it releases the response.
+     *
+     * @return stream of elements
+     */
+    public Stream<T> stream() {
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        inResult = false;
+        try {
+            parser.close();
+        } catch (IOException e) {
+            //response is released below anyway
+        }
+        try {
+            resource.close();
+        } catch (IOException e) {
+            throw new RestApiClientException(e);
+        }
+    }
+
+    /**
+     * Reads envelope fields until result array starts or object ends.
+     */
+    private void readEnvelope() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (RESULT_FIELD.equals(field)) {
+                if (token == JsonToken.START_ARRAY) {
+                    inResult = true;
+                    return;
+                }
+                if (token != JsonToken.VALUE_NULL) {
+                    throw new RestApiClientException("Response result must be json array.");
+                }
+                continue;
+            }
+            boolean isNull = token == JsonToken.VALUE_NULL;
+            switch (field) {
+                case "apiVersion":
+                    envelope.setApiVersion(isNull ? 0 : parser.getIntValue());
+                    break;
+                case "limit":
+                    envelope.setLimit(isNull ? null : parser.getIntValue());
+                    break;
+                case "skip":
+                    envelope.setSkip(isNull ? null : parser.getLongValue());
+                    break;
+                case "total":
+                    envelope.setTotal(isNull ? null : parser.getLongValue());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+    }
+}
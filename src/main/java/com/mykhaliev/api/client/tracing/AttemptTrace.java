@@ -0,0 +1,62 @@
+package com.mykhaliev.api.client.tracing;
+
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Trace of a single request attempt, shared with connection internals through http context attribute.
+ */
+public class AttemptTrace {
+
+    public static final String CONTEXT_ATTRIBUTE = AttemptTrace.class.getName();
+
+    private final Tracer tracer;
+
+    private final Span span;
+
+    AttemptTrace(Tracer tracer, Span span) {
+        this.tracer = tracer;
+        this.span = span;
+    }
+
+    /**
+     * @param context http context
+     * @return attempt trace of the context, null if there is none
+     */
+    public static AttemptTrace of(HttpContext context) {
+        if (context == null) {
+            return null;
+        }
+        Object trace = context.getAttribute(CONTEXT_ATTRIBUTE);
+        return trace instanceof AttemptTrace ? (AttemptTrace) trace : null;
+    }
+
+    /**
+     * Starts phase span of the attempt, e.g. dns, connect, tls, request or response.
+     *
+     * @param name phase name
+     * @return started span
+     */
+    public Span startPhase(String name) {
+        return tracer.startSpan(name, span);
+    }
+
+    public Span getSpan() {
+        return span;
+    }
+
+    /**
+     * Ends attempt span.
+     *
+     * @param statusCode response status, 0 if there is no response
+     * @param error      attempt failure, null if response was received
+     */
+    public void end(int statusCode, Throwable error) {
+        if (statusCode > 0) {
+            span.setAttribute("http.status_code", statusCode);
+        }
+        if (error != null) {
+            span.recordException(error);
+        }
+        span.end();
+    }
+}
@@ -0,0 +1,89 @@
+package com.mykhaliev.api.client.tracing;
+
+import org.apache.http.HttpRequest;
+
+/**
+ * Trace of a single call, its span covers all attempts and response parsing.
+ */
+public class CallTrace {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private final Tracer tracer;
+
+    private final Span span;
+
+    private CallTrace(Tracer tracer, Span span) {
+        this.tracer = tracer;
+        this.span = span;
+    }
+
+    /**
+     * Starts call span as a child of the current span of calling thread.
+     *
+     * @param tracer tracer
+     * @param method request method
+     * @param route  route template
+     * @return call trace
+     */
+    public static CallTrace start(Tracer tracer, String method, String route) {
+        Span span = tracer.startSpan(method + " " + route, tracer.currentSpan());
+        span.setAttribute("http.method", method);
+        span.setAttribute("http.route", route);
+        return new CallTrace(tracer, span);
+    }
+
+    /**
+     * Starts attempt span and puts its context in traceparent header of the request.
+     *
+     * @param request        request to send
+     * @param executionCount execution attempt, starting with 1
+     * @return attempt trace
+     */
+    public AttemptTrace startAttempt(HttpRequest request, int executionCount) {
+        Span attempt = tracer.startSpan("attempt", span);
+        attempt.setAttribute("http.attempt", executionCount);
+        String traceparent = traceparentOf(attempt);
+        if (traceparent != null) {
+            request.setHeader(TRACEPARENT, traceparent);
+        }
+        return new AttemptTrace(tracer, attempt);
+    }
+
+    /**
+     * Starts child span of the call.
+     *
+     * @param name span name
+     * @return started span
+     */
+    public Span startSpan(String name) {
+        return tracer.startSpan(name, span);
+    }
+
+    /**
+     * Ends call span.
+     *
+     * @param error call failure, null if succeeded
+     */
+    public void end(Throwable error) {
+        if (error != null) {
+            span.recordException(error);
+        }
+        span.end();
+    }
+
+    /**
+     * W3C trace context header value.
+     *
+     * @param span span to propagate
+     * @return traceparent value, null if span has no context
+     */
+    public static String traceparentOf(Span span) {
+        String traceId = span.getTraceId();
+        String spanId = span.getSpanId();
+        if (traceId == null || spanId == null) {
+            return null;
+        }
+        return "00-" + traceId + "-" + spanId + (span.isSampled() ? "-01" : "-00");
+    }
+}
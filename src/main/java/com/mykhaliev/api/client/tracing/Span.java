@@ -0,0 +1,51 @@
+package com.mykhaliev.api.client.tracing;
+
+/**
+ * Span of a traced operation. Spans are started by {@link Tracer} and may be ended on another thread.
+ */
+public interface Span {
+
+    Span NOOP = new Span() {
+        @Override
+        public String getTraceId() {
+            return null;
+        }
+
+        @Override
+        public String getSpanId() {
+            return null;
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    /**
+     * @return 32 lowercase hex digits trace id, null if span is not propagated
+     */
+    String getTraceId();
+
+    /**
+     * @return 16 lowercase hex digits span id, null if span is not propagated
+     */
+    String getSpanId();
+
+    default boolean isSampled() {
+        return true;
+    }
+
+    default void setAttribute(String key, String value) {
+    }
+
+    default void setAttribute(String key, long value) {
+    }
+
+    default void addEvent(String name) {
+    }
+
+    default void recordException(Throwable e) {
+    }
+
+    void end();
+}
@@ -0,0 +1,29 @@
+package com.mykhaliev.api.client.tracing;
+
+/**
+ * Tracer SPI, e.g. an adapter to OpenTelemetry. Each call gets a client span, a child span per attempt,
+ * whose context is sent in W3C traceparent header, and phase spans below them.
+ */
+public interface Tracer {
+
+    Tracer NOOP = (name, parent) -> Span.NOOP;
+
+    /**
+     * Starts span.
+     *
+     * @param name   span name
+     * @param parent parent span, null for a new trace
+     * @return started span
+     */
+    Span startSpan(String name, Span parent);
+
+    /**
+     * Span active on the calling thread, captured when a call starts, so async calls keep their parent
+     * whichever thread completes them.
+     *
+     * @return current span, null if none
+     */
+    default Span currentSpan() {
+        return null;
+    }
+}
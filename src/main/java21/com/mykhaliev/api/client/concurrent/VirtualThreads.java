@@ -0,0 +1,30 @@
+package com.mykhaliev.api.client.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual thread support. This is the Java 21 variant, packaged under {@code META-INF/versions/21}.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if running jvm has virtual threads
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Executor starting a virtual thread per task.
+     *
+     * @param namePrefix thread name prefix
+     * @return executor, must be shut down
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+}
@@ -0,0 +1,175 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.mykhaliev.api.client.codec.Codec;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.stream.ResponseStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+
+public class CodecTest extends AbstractRestServiceTest {
+
+    private final Codec smile = Codec.smile();
+
+    private final Codec cbor = Codec.cbor();
+
+    private final RestApiClient restClient = new RestApiClient(RestApiClientConfig
+            .builder()
+            .apiRootUrl("http://localhost:8089")
+            .username("username")
+            .password("password")
+            .codecs(Arrays.asList(smile, cbor))
+            .build());
+
+    @After
+    public void closeClient() {
+        restClient.close();
+    }
+
+    @Test
+    public void smileTest() throws Exception {
+        Pet pet = new Pet(1L, "pet");
+        stubSmilePet();
+        restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+        });
+        stubFor(post(urlEqualTo("/pets"))
+                .withHeader("Content-Type", equalTo(Codec.SMILE_MEDIA_TYPE))
+                .withHeader("Accept", equalTo("application/x-jackson-smile, application/cbor;q=0.9, application/json;q=0.8"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", Codec.SMILE_MEDIA_TYPE)
+                        .withBody(smile.getMapper().writeValueAsBytes(createResponse(pet)))));
+
+        Response<Pet> response = restClient.post("/pets", new TypeReference<Response<Pet>>() {
+        }, pet);
+        Assert.assertEquals("pet", response.getResult().getName());
+
+        LoggedRequest request = findAll(postRequestedFor(urlEqualTo("/pets"))).get(0);
+        Assert.assertEquals(pet, smile.getMapper().readValue(request.getBody(), Pet.class));
+    }
+
+    @Test
+    public void jsonUntilServerAnswersInCodecTest() throws Exception {
+        Pet pet = new Pet(1L, "pet");
+        stubFor(post(urlEqualTo("/pets"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", Codec.SMILE_MEDIA_TYPE)
+                        .withBody(smile.getMapper().writeValueAsBytes(createResponse(pet)))));
+
+        restClient.post("/pets", new TypeReference<Response<Pet>>() {
+        }, pet);
+        restClient.post("/pets", new TypeReference<Response<Pet>>() {
+        }, pet);
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/pets")));
+        Assert.assertEquals("application/json", requests.get(0).getHeader("Content-Type"));
+        Assert.assertEquals(pet, MAPPER.readValue(requests.get(0).getBodyAsString(), Pet.class));
+        Assert.assertEquals(Codec.SMILE_MEDIA_TYPE, requests.get(1).getHeader("Content-Type"));
+    }
+
+    @Test
+    public void unsupportedMediaTypeTest() throws Exception {
+        Pet pet = new Pet(1L, "pet");
+        stubSmilePet();
+        restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+        });
+        stubFor(post(urlEqualTo("/pets"))
+                .withHeader("Content-Type", equalTo(Codec.SMILE_MEDIA_TYPE))
+                .willReturn(aResponse().withStatus(415)
+                        .withHeader("Content-Type", Codec.SMILE_MEDIA_TYPE)
+                        .withBody(smile.getMapper().writeValueAsBytes(createResponse("unsupported")))));
+        stubFor(post(urlEqualTo("/pets"))
+                .withHeader("Content-Type", equalTo("application/json"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", Codec.SMILE_MEDIA_TYPE)
+                        .withBody(smile.getMapper().writeValueAsBytes(createResponse(pet)))));
+
+        try {
+            restClient.post("/pets", new TypeReference<Response<Pet>>() {
+            }, pet);
+            Assert.fail();
+        } catch (RestApiClientException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("error code: 415"));
+        }
+        //rejected codec stays out of request bodies even though server keeps answering in it
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals("pet", restClient.post("/pets", new TypeReference<Response<Pet>>() {
+            }, pet).getResult().getName());
+        }
+        verify(exactly(2), postRequestedFor(urlEqualTo("/pets"))
+                .withHeader("Content-Type", equalTo("application/json")));
+    }
+
+    @Test
+    public void cborAsyncTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", Codec.CBOR_MEDIA_TYPE)
+                        .withBody(cbor.getMapper().writeValueAsBytes(createResponse(new Pet(1L, "pet"))))));
+
+        Response<Pet> response = restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+        }).get();
+        Assert.assertEquals("pet", response.getResult().getName());
+    }
+
+    @Test
+    public void jsonFallbackTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json; charset=utf-8")
+                        .withBody(MAPPER.writeValueAsString(createResponse(Arrays.asList(new Pet(1L, "pet")))))));
+
+        Response<List<Pet>> response = restClient.get("/pets", new TypeReference<Response<List<Pet>>>() {
+        });
+        Assert.assertEquals("pet", response.getResult().get(0).getName());
+        try (ResponseStream<Pet> pets = restClient.getStream("/pets",
+                new TypeReference<Pet>() {
+                })) {
+            Assert.assertEquals("pet", pets.next().getName());
+        }
+    }
+
+    @Test
+    public void smileStreamTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", Codec.SMILE_MEDIA_TYPE)
+                        .withBody(smile.getMapper().writeValueAsBytes(
+                                createResponse(Arrays.asList(new Pet(1L, "a"), new Pet(2L, "b")))))));
+
+        try (ResponseStream<Pet> pets = restClient.getStream("/pets",
+                new TypeReference<Pet>() {
+                })) {
+            Assert.assertEquals("a", pets.next().getName());
+            Assert.assertEquals("b", pets.next().getName());
+            Assert.assertFalse(pets.hasNext());
+        }
+    }
+
+    @Test
+    public void readerCacheTest() {
+        Assert.assertSame(smile.readerFor(new TypeReference<Response<List<Pet>>>() {
+        }), smile.readerFor(new TypeReference<Response<List<Pet>>>() {
+        }));
+        Assert.assertNotSame(smile.readerFor(new TypeReference<Response<Pet>>() {
+        }), smile.readerFor(new TypeReference<Response<List<Pet>>>() {
+        }));
+        Assert.assertSame(smile.writerFor(Pet.class), smile.writerFor(Pet.class));
+    }
+
+    private void stubSmilePet() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", Codec.SMILE_MEDIA_TYPE)
+                        .withBody(smile.getMapper().writeValueAsBytes(createResponse(new Pet(1L, "pet"))))));
+    }
+}
@@ -0,0 +1,233 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.CallNotPermittedException;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.resilience.ConcurrencyLimiter;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
+import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
+import org.apache.hc.core5.http.io.HttpRequestHandler;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mykhaliev.api.client.AbstractRestServiceTest.MAPPER;
+import static com.mykhaliev.api.client.AbstractRestServiceTest.createResponse;
+
+
+/**
+ * Simulation of callers overloading a backend whose latency grows with concurrent requests beyond its capacity
+ * and which sheds requests once overloaded.
+ */
+public class ConcurrencyLimitTest {
+
+    private static final int CAPACITY = 5;
+
+    private static final int OVERLOAD = 4 * CAPACITY;
+
+    private static final int LATENCY_MILLISECONDS = 50;
+
+    private static final int CALLERS = 40;
+
+    private static final long SIMULATION_MILLISECONDS = 3000;
+
+    private static final TypeReference<Response<Pet>> PET_RESPONSE_TYPE = new TypeReference<Response<Pet>>() {
+    };
+
+    private final AtomicInteger load = new AtomicInteger();
+
+    private final AtomicInteger peakLoad = new AtomicInteger();
+
+    private final AtomicInteger shed = new AtomicInteger();
+
+    private HttpServer server;
+
+    private String apiRootUrl;
+
+    @Before
+    public void startServer() throws Exception {
+        //thread per connection, each caller is served on its own
+        server = ServerBootstrap.bootstrap()
+                .setListenerPort(0)
+                .register("*", new OverloadedHandler())
+                .create();
+        server.start();
+        apiRootUrl = "http://localhost:" + server.getLocalPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    public void unlimitedTest() throws Exception {
+        RestApiClient client = new RestApiClient(config()
+                .poolMaxPerRoute(CALLERS)
+                .poolMaxTotal(CALLERS)
+                .build());
+        try {
+            simulate(client);
+        } finally {
+            client.close();
+        }
+        //static pool as large as the callers lets them all through
+        Assert.assertTrue(String.valueOf(peakLoad.get()), peakLoad.get() > OVERLOAD);
+        Assert.assertTrue(shed.get() > 0);
+    }
+
+    @Test
+    public void aimdTest() throws Exception {
+        RestApiClient client = new RestApiClient(config()
+                .concurrencyLimitAlgorithm(ConcurrencyLimiter.Algorithm.AIMD)
+                .concurrencyLimitLatencyThresholdMilliseconds(3 * LATENCY_MILLISECONDS)
+                .concurrencyLimitQueueMilliseconds(5000)
+                .build());
+        try {
+            Assert.assertEquals(0, simulate(client));
+            assertLimited(client);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void gradientTest() throws Exception {
+        RestApiClient client = new RestApiClient(config()
+                .concurrencyLimitAlgorithm(ConcurrencyLimiter.Algorithm.GRADIENT)
+                .concurrencyLimitQueueMilliseconds(5000)
+                .build());
+        try {
+            Assert.assertEquals(0, simulate(client));
+            assertLimited(client);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void rejectionTest() throws Exception {
+        RestApiClient client = new RestApiClient(config()
+                .concurrencyLimitAlgorithm(ConcurrencyLimiter.Algorithm.GRADIENT)
+                .build());
+        try {
+            //without queue timeout callers over the limit are turned away at once
+            Assert.assertTrue(simulate(client) > 0);
+            assertLimited(client);
+            Assert.assertEquals("pet1", client.getAsync("/pets/1", PET_RESPONSE_TYPE).get().getResult().getName());
+        } finally {
+            client.close();
+        }
+    }
+
+    private RestApiClientConfig.RestApiClientConfigBuilder config() {
+        return RestApiClientConfig.builder()
+                .apiRootUrl(apiRootUrl)
+                .username("username")
+                .password("password")
+                .retryCount(0);
+    }
+
+    /**
+     * Runs callers in a loop, load is measured over the second half once the limit has settled.
+     *
+     * @return calls rejected by concurrency limit
+     */
+    private int simulate(RestApiClient client) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        AtomicInteger rejected = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SIMULATION_MILLISECONDS);
+        List<Future<?>> runs = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                runs.add(callers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            client.get("/pets/1", PET_RESPONSE_TYPE);
+                        } catch (CallNotPermittedException e) {
+                            rejected.incrementAndGet();
+                            sleep(LATENCY_MILLISECONDS);
+                        } catch (RestApiClientException e) {
+                            //shed by the server
+                        }
+                    }
+                }));
+            }
+            Thread.sleep(SIMULATION_MILLISECONDS / 2);
+            peakLoad.set(0);
+            shed.set(0);
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        return rejected.get();
+    }
+
+    private void assertLimited(RestApiClient client) {
+        ConcurrencyLimiter limiter = client.getConcurrencyLimiters().get(
+                "localhost:" + apiRootUrl.substring(apiRootUrl.lastIndexOf(':') + 1) + "/pets/{id}");
+        Assert.assertNotNull(limiter);
+        Assert.assertTrue(String.valueOf(limiter.getLimit()), limiter.getLimit() >= CAPACITY / 2);
+        Assert.assertTrue(String.valueOf(limiter.getLimit()), limiter.getLimit() < OVERLOAD);
+        Assert.assertTrue(String.valueOf(peakLoad.get()), peakLoad.get() <= OVERLOAD);
+        Assert.assertEquals(0, shed.get());
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Serves requests up to capacity at base latency, above it latency grows with load as the backend shares
+     * its workers, overloaded backend sheds requests with 503.
+     */
+    private class OverloadedHandler implements HttpRequestHandler {
+
+        @Override
+        public void handle(ClassicHttpRequest request, ClassicHttpResponse response, HttpContext context)
+                throws IOException {
+            int current = load.incrementAndGet();
+            try {
+                peakLoad.accumulateAndGet(current, Math::max);
+                if (current > OVERLOAD) {
+                    shed.incrementAndGet();
+                    response.setCode(503);
+                    response.setEntity(new StringEntity(MAPPER.writeValueAsString(createResponse("overloaded")),
+                            ContentType.APPLICATION_JSON));
+                    return;
+                }
+                sleep(LATENCY_MILLISECONDS * Math.max(CAPACITY, current) / CAPACITY);
+                response.setEntity(new StringEntity(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet1"))),
+                        ContentType.APPLICATION_JSON));
+            } finally {
+                load.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.metrics.MetricsRecorder;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.stream.ResponseStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+
+public class ConnectionPoolTest extends AbstractRestServiceTest {
+
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private final MetricsRecorder metrics = new MetricsRecorder() {
+        @Override
+        public void registerGauge(String name, String pool, LongSupplier value) {
+            gauges.put(name + " " + pool, value);
+        }
+    };
+
+    @Test
+    public void warmUpTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        RestApiClient restClient = new RestApiClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .poolMaxPerRoute(5)
+                .poolWarmUpConnections(3)
+                .metricsRecorder(metrics)
+                .build());
+
+        try {
+            Assert.assertEquals(3, available());
+            Assert.assertEquals(2, restClient.warmUp(10));
+            Assert.assertEquals(5, available());
+            Assert.assertEquals(0, restClient.warmUp(5));
+            //calls take warm connections instead of opening new ones
+            restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+            });
+            Assert.assertEquals(5, available());
+        } finally {
+            restClient.close();
+        }
+    }
+
+    @Test
+    public void warmUpFailureTest() {
+        RestApiClient restClient = new RestApiClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8090")
+                .username("username")
+                .poolWarmUpConnections(2)
+                .metricsRecorder(metrics)
+                .build());
+
+        try {
+            Assert.assertEquals(0, available());
+            Assert.assertEquals(0, gauges.get("pool.leased sync").getAsLong());
+        } finally {
+            restClient.close();
+        }
+    }
+
+    @Test(timeout = 15000)
+    public void warmUpTimeoutTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets"))
+                .willReturn(aResponse()
+                        .withBody(MAPPER.writeValueAsString(createResponse(Arrays.asList(new Pet(1L, "pet")))))));
+        RestApiClient restClient = new RestApiClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .poolMaxPerRoute(1)
+                .build());
+
+        //open stream holds the only connection, warm up without configured timeouts gives up instead of waiting
+        try (ResponseStream<Pet> pets = restClient.getStream("/pets", new TypeReference<Pet>() {
+        })) {
+            Assert.assertEquals(0, restClient.warmUp(1));
+        } finally {
+            restClient.close();
+        }
+    }
+
+    @Test
+    public void idleEvictionTest() throws Exception {
+        assertEvicted(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .idleConnectionTimeoutMilliseconds(100)
+                .idleConnectionEvictionIntervalMilliseconds(50)
+                .metricsRecorder(metrics)
+                .build());
+    }
+
+    @Test
+    public void timeToLiveTest() throws Exception {
+        assertEvicted(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .connectionTimeToLiveMilliseconds(100)
+                .idleConnectionEvictionIntervalMilliseconds(50)
+                .metricsRecorder(metrics)
+                .build());
+    }
+
+    @Test
+    public void defaultEvictionIntervalTest() throws Exception {
+        //interval without value falls back to the default one
+        RestApiClient restClient = new RestApiClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .idleConnectionTimeoutMilliseconds(100)
+                .idleConnectionEvictionIntervalMilliseconds(0)
+                .build());
+        restClient.close();
+    }
+
+    private void assertEvicted(RestApiClientConfig config) throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        RestApiClient restClient = new RestApiClient(config);
+        try {
+            restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+            });
+            restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+            }).get();
+            Assert.assertEquals(1, available());
+            Assert.assertEquals(1, gauges.get("pool.available async").getAsLong());
+            Thread.sleep(500);
+            Assert.assertEquals(0, available());
+            Assert.assertEquals(0, gauges.get("pool.available async").getAsLong());
+        } finally {
+            restClient.close();
+        }
+    }
+
+    private long available() {
+        return gauges.get("pool.available sync").getAsLong();
+    }
+}
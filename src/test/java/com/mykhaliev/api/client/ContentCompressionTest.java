@@ -0,0 +1,166 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+
+public class ContentCompressionTest extends AbstractRestServiceTest {
+
+    private final RestApiClient restClient = new RestApiClient(RestApiClientConfig
+            .builder()
+            .apiRootUrl("http://localhost:8089")
+            .username("username")
+            .password("password")
+            .requestCompressionThresholdBytes(1024)
+            .build());
+
+    @After
+    public void closeClient() {
+        restClient.close();
+    }
+
+    @Test
+    public void gzipResponseTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets"))
+                .withHeader("Accept-Encoding", containing("gzip"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Encoding", "gzip")
+                        .withBody(gzip(MAPPER.writeValueAsBytes(createResponse(pets(100)))))));
+
+        Response<List<Pet>> response = restClient.get("/pets", new TypeReference<Response<List<Pet>>>() {
+        });
+        Response<List<Pet>> asyncResponse = restClient.getAsync("/pets", new TypeReference<Response<List<Pet>>>() {
+        }).get();
+        Assert.assertEquals(100, response.getResult().size());
+        Assert.assertEquals(100, asyncResponse.getResult().size());
+        Assert.assertEquals("pet99", asyncResponse.getResult().get(99).getName());
+    }
+
+    @Test
+    public void gzipRequestTest() throws Exception {
+        stubFor(post(urlEqualTo("/pets"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        restClient.post("/pets", new TypeReference<Response<Pet>>() {
+        }, pets(100));
+        restClient.postAsync("/pets", new TypeReference<Response<Pet>>() {
+        }, pets(100)).get();
+        restClient.post("/pets", new TypeReference<Response<Pet>>() {
+        }, new Pet(1L, "small"));
+
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/pets")));
+        Assert.assertEquals(3, requests.size());
+        for (LoggedRequest request : requests.subList(0, 2)) {
+            Assert.assertEquals("gzip", request.getHeader("Content-Encoding"));
+            //wiremock logs decompressed body
+            Assert.assertArrayEquals(MAPPER.writeValueAsBytes(pets(100)), request.getBody());
+            Assert.assertTrue(Integer.parseInt(request.getHeader("Content-Length"))
+                    < MAPPER.writeValueAsBytes(pets(100)).length / 2);
+        }
+        Assert.assertFalse(requests.get(2).containsHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void disabledTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .withHeader("Accept-Encoding", absent())
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        RestApiClient identityClient = new RestApiClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .acceptEncoding("")
+                .build());
+
+        try {
+            Assert.assertEquals("pet", identityClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+            }).getResult().getName());
+            Assert.assertEquals("pet", identityClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+            }).get().getResult().getName());
+        } finally {
+            identityClient.close();
+        }
+    }
+
+    @Test
+    public void downloadResumeTest() throws Exception {
+        byte[] data = new byte[1000];
+        new Random(1).nextBytes(data);
+        byte[] encoded = gzip(data);
+        //compressing server, offsets into gzip body are not offsets into the file
+        stubFor(get(urlEqualTo("/files/pet"))
+                .withHeader("Accept-Encoding", containing("gzip"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Encoding", "gzip")
+                        .withHeader("Content-Length", String.valueOf(encoded.length))
+                        .withBody(Arrays.copyOf(encoded, 500))));
+        //connection drops after 100 bytes
+        stubFor(get(urlEqualTo("/files/pet"))
+                .withHeader("Accept-Encoding", equalTo("identity"))
+                .withHeader("Range", absent())
+                .willReturn(aResponse()
+                        .withHeader("Content-Length", String.valueOf(data.length))
+                        .withBody(Arrays.copyOf(data, 100))));
+        stubFor(get(urlEqualTo("/files/pet"))
+                .withHeader("Accept-Encoding", equalTo("identity"))
+                .withHeader("Range", equalTo("bytes=100-"))
+                .willReturn(aResponse()
+                        .withStatus(206)
+                        .withHeader("Content-Range", "bytes 100-999/1000")
+                        .withBody(Arrays.copyOfRange(data, 100, data.length))));
+        File target = File.createTempFile("download-", ".bin");
+
+        try {
+            restClient.downloadFile("/files/pet", target.getPath());
+            Assert.assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+            verify(exactly(2), getRequestedFor(urlEqualTo("/files/pet")));
+        } finally {
+            target.delete();
+        }
+    }
+
+    @Test(expected = RestApiClientException.class)
+    public void missingDecoderTest() {
+        new RestApiClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .acceptEncoding("br, gzip")
+                .build());
+    }
+
+    private static List<Pet> pets(int count) {
+        List<Pet> pets = new ArrayList<>();
+        for (long id = 0; id < count; id++) {
+            pets.add(new Pet(id, "pet" + id));
+        }
+        return pets;
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+}
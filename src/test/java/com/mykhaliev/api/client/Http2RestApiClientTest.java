@@ -0,0 +1,253 @@
+package com.mykhaliev.api.client;
+
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.stream.ResponseStream;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mykhaliev.api.client.AbstractRestServiceTest.MAPPER;
+import static com.mykhaliev.api.client.AbstractRestServiceTest.createResponse;
+
+
+public class Http2RestApiClientTest {
+
+    private static final int DELAY_MILLISECONDS = 300;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final AtomicInteger unavailable = new AtomicInteger(1);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private HttpAsyncServer server;
+
+    private String apiRootUrl;
+
+    private PetstoreRestClient client;
+
+    @Before
+    public void startServer() throws Exception {
+        //h2c server, clients without prior knowledge are refused
+        server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .setIOSessionListener(new ConnectionCounter())
+                .register("*", new PetstoreHandler())
+                .create();
+        server.start();
+        ListenerEndpoint endpoint = server.listen(new InetSocketAddress("localhost", 0)).get();
+        apiRootUrl = "http://localhost:" + ((InetSocketAddress) endpoint.getAddress()).getPort();
+        client = new PetstoreRestClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl(apiRootUrl)
+                .username("username")
+                .password("password")
+                .http2(true)
+                .build());
+    }
+
+    @After
+    public void stopServer() {
+        client.close();
+        server.close(CloseMode.IMMEDIATE);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void multiplexingTest() {
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            ids.add(id);
+        }
+        Assert.assertTrue(client.getPetsByIds(ids).stream()
+                .allMatch(result -> result.getResult().getResult().getId().equals(result.getItem())));
+        //batch of ten concurrent streams over a single connection
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(DELAY_MILLISECONDS * 10));
+        Assert.assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void callsTest() throws Exception {
+        Assert.assertEquals("pet1", client.getPetById(1).getResult().getName());
+        Assert.assertEquals("saved", client.savePet(new Pet(2L, "saved")).getResult().getName());
+        try (ResponseStream<Pet> pets = client.streamPets()) {
+            List<String> names = new ArrayList<>();
+            pets.forEachRemaining(pet -> names.add(pet.getName()));
+            Assert.assertEquals(Arrays.asList("pet1", "pet2"), names);
+        }
+        File info = File.createTempFile("info", ".txt");
+        try {
+            client.downloadPetInfo(1, info.getPath());
+            Assert.assertEquals("info", new String(Files.readAllBytes(info.toPath()), StandardCharsets.UTF_8));
+        } finally {
+            info.delete();
+        }
+    }
+
+    @Test
+    public void errorTest() {
+        try {
+            client.getPetById(404);
+            Assert.fail();
+        } catch (RestApiClientException e) {
+            Assert.assertTrue(e.getMessage().contains("error code: 404"));
+            Assert.assertTrue(e.getMessage().contains("not found"));
+        }
+    }
+
+    @Test
+    public void defaultRetryTest() {
+        //without retry count 503 is still retried once
+        Assert.assertEquals("pet503", client.getPetById(503).getResult().getName());
+    }
+
+    @Test
+    public void defaultRetryIntervalTest() {
+        unavailable.set(2);
+        try (PetstoreRestClient retryClient = new PetstoreRestClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl(apiRootUrl)
+                .username("username")
+                .password("password")
+                .http2(true)
+                .retryCount(2)
+                .build())) {
+            long start = System.nanoTime();
+            Assert.assertEquals("pet503", retryClient.getPetById(503).getResult().getName());
+            //default interval of a second
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue(String.valueOf(elapsed), elapsed >= 1900);
+        }
+    }
+
+    @Test
+    public void downloadRetryTest() throws IOException {
+        File info = File.createTempFile("info", ".txt");
+        try (PetstoreRestClient retryClient = new PetstoreRestClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl(apiRootUrl)
+                .username("username")
+                .password("password")
+                .http2(true)
+                .retryCount(1)
+                .retryIntervalMilliseconds(10)
+                .build())) {
+            retryClient.downloadPetInfo(503, info.getPath());
+            Assert.assertEquals("info", new String(Files.readAllBytes(info.toPath()), StandardCharsets.UTF_8));
+        } finally {
+            info.delete();
+        }
+    }
+
+    private class ConnectionCounter implements IOSessionListener {
+
+        @Override
+        public void connected(IOSession session) {
+            connections.incrementAndGet();
+        }
+
+        @Override
+        public void startTls(IOSession session) {
+        }
+
+        @Override
+        public void inputReady(IOSession session) {
+        }
+
+        @Override
+        public void outputReady(IOSession session) {
+        }
+
+        @Override
+        public void timeout(IOSession session) {
+        }
+
+        @Override
+        public void exception(IOSession session, Exception e) {
+        }
+
+        @Override
+        public void disconnected(IOSession session) {
+        }
+    }
+
+    private class PetstoreHandler implements AsyncServerRequestHandler<Message<HttpRequest, byte[]>> {
+
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, byte[]>> prepare(HttpRequest request,
+                                                                         EntityDetails entityDetails,
+                                                                         HttpContext context) {
+            return new BasicRequestConsumer<>(entityDetails == null ? null : new BasicAsyncEntityConsumer());
+        }
+
+        @Override
+        public void handle(Message<HttpRequest, byte[]> message, ResponseTrigger trigger, HttpContext context)
+                throws IOException {
+            HttpRequest request = message.getHead();
+            Assert.assertEquals("Basic dXNlcm5hbWU6cGFzc3dvcmQ=", request.getFirstHeader("Authorization").getValue());
+            String path = request.getPath();
+            if (path.equals("/pets/404")) {
+                respond(trigger, context, 404, MAPPER.writeValueAsString(createResponse("not found")));
+            } else if (path.startsWith("/pets/503") && unavailable.getAndDecrement() > 0) {
+                respond(trigger, context, 503, MAPPER.writeValueAsString(createResponse("unavailable")));
+            } else if (path.endsWith("/info")) {
+                respond(trigger, context, 200, "info");
+            } else if (path.startsWith("/pets/")) {
+                long id = Long.parseLong(path.substring("/pets/".length()));
+                String body = MAPPER.writeValueAsString(createResponse(new Pet(id, "pet" + id)));
+                //slow backend, calls only overlap if they are multiplexed
+                scheduler.schedule(() -> respond(trigger, context, 200, body), DELAY_MILLISECONDS,
+                        TimeUnit.MILLISECONDS);
+            } else if (request.getMethod().equals("POST")) {
+                Pet pet = MAPPER.readValue(message.getBody(), Pet.class);
+                respond(trigger, context, 200, MAPPER.writeValueAsString(createResponse(pet)));
+            } else {
+                respond(trigger, context, 200, MAPPER.writeValueAsString(createResponse(
+                        Arrays.asList(new Pet(1L, "pet1"), new Pet(2L, "pet2")))));
+            }
+        }
+
+        private void respond(ResponseTrigger trigger, HttpContext context, int status, String body) {
+            try {
+                trigger.submitResponse(new BasicResponseProducer(status, body, ContentType.APPLICATION_JSON),
+                        context);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.BasicCredentials;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.loadbalancer.Endpoint;
+import com.mykhaliev.api.client.loadbalancer.LoadBalancer;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+
+public class LoadBalancingTest extends AbstractRestServiceTest {
+
+    private final WireMockServer replica = new WireMockServer(options().port(8091));
+
+    private RestApiClient restClient;
+
+    @Before
+    public void startReplica() throws Exception {
+        replica.start();
+        String body = MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet")));
+        stubFor(get(urlEqualTo("/pets/1")).willReturn(aResponse().withBody(body)));
+        replica.stubFor(get(urlEqualTo("/pets/1")).willReturn(aResponse().withBody(body)));
+    }
+
+    @After
+    public void stopReplica() {
+        if (restClient != null) {
+            restClient.close();
+        }
+        replica.stop();
+    }
+
+    @Test
+    public void roundRobinTest() throws Exception {
+        restClient = new RestApiClient(config(LoadBalancer.Strategy.ROUND_ROBIN));
+
+        for (int i = 0; i < 5; i++) {
+            restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+            });
+            restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+            }).get();
+        }
+
+        //every endpoint gets half of the calls, with preemptive auth
+        verify(5, getRequestedFor(urlEqualTo("/pets/1")).withBasicAuth(new BasicCredentials("username", "password")));
+        replica.verify(5, getRequestedFor(urlEqualTo("/pets/1"))
+                .withBasicAuth(new BasicCredentials("username", "password")));
+        for (Endpoint endpoint : restClient.getEndpoints()) {
+            Assert.assertEquals(0, endpoint.getOutstanding());
+        }
+    }
+
+    @Test
+    public void ejectionTest() throws Exception {
+        replica.stubFor(get(urlEqualTo("/pets/1")).willReturn(aResponse().withStatus(503)));
+        restClient = new RestApiClient(config(LoadBalancer.Strategy.ROUND_ROBIN));
+
+        //retries land on the healthy endpoint, failing one is ejected after two failures
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("pet", restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+            }).getResult().getName());
+        }
+        Endpoint failing = restClient.getEndpoints().get(1);
+        Assert.assertTrue(failing.isEjected());
+        replica.verify(2, getRequestedFor(urlEqualTo("/pets/1")));
+        verify(10, getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    private static RestApiClientConfig config(LoadBalancer.Strategy strategy) {
+        return RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://petstore")
+                .endpoints(Arrays.asList("http://localhost:8089", "http://localhost:8091/"))
+                .loadBalancingStrategy(strategy)
+                .endpointEjectionFailures(2)
+                .username("username")
+                .password("password")
+                .retryCount(1)
+                .retryIntervalMilliseconds(1)
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.metrics.MetricsRecorder;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+
+
+public class MetricsTest extends AbstractRestServiceTest {
+
+    private static final String ROUTE = "localhost:8089/pets/{id}";
+
+    private final RecordingMetrics metrics = new RecordingMetrics();
+
+    private final RestApiClient restClient = new RestApiClient(RestApiClientConfig
+            .builder()
+            .apiRootUrl("http://localhost:8089")
+            .username("username")
+            .password("password")
+            .retryCount(1)
+            .retryIntervalMilliseconds(1)
+            .metricsRecorder(metrics)
+            .build());
+
+    @After
+    public void closeClient() {
+        restClient.close();
+    }
+
+    @Test
+    public void timingTest() throws Exception {
+        stubFor(get(urlMatching("/pets/[0-9]+"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+        });
+        restClient.get("/pets/2", new TypeReference<Response<Pet>>() {
+        });
+        //connection is reused
+        Assert.assertEquals(1, metrics.count("time GET " + ROUTE + " CONNECT"));
+        Assert.assertEquals(2, metrics.count("time GET " + ROUTE + " TIME_TO_FIRST_BYTE"));
+        Assert.assertEquals(2, metrics.count("time GET " + ROUTE + " BODY_READ"));
+        Assert.assertEquals(2, metrics.count("time GET " + ROUTE + " DESERIALIZE"));
+        Assert.assertEquals(2, metrics.count("time GET " + ROUTE + " TOTAL"));
+        Assert.assertEquals(2, metrics.count("status GET " + ROUTE + " 200"));
+        Assert.assertEquals(2 * MAPPER.writeValueAsBytes(createResponse(new Pet(1L, "pet"))).length,
+                metrics.sum("response GET " + ROUTE));
+
+        restClient.getAsync("/pets/3", new TypeReference<Response<Pet>>() {
+        }).get();
+        Assert.assertEquals(3, metrics.count("time GET " + ROUTE + " TIME_TO_FIRST_BYTE"));
+        Assert.assertEquals(3, metrics.count("time GET " + ROUTE + " TOTAL"));
+        Assert.assertEquals(3, metrics.count("status GET " + ROUTE + " 200"));
+    }
+
+    @Test
+    public void retryAndStatusTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("unavailable").whenScenarioStateIs(STARTED)
+                .willReturn(serviceUnavailable())
+                .willSetStateTo("available"));
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("unavailable").whenScenarioStateIs("available")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        stubFor(post(urlEqualTo("/pets"))
+                .willReturn(badRequest().withBody(MAPPER.writeValueAsString(createResponse("invalid")))));
+
+        restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+        });
+        Assert.assertEquals(1, metrics.count("retry GET " + ROUTE));
+        Assert.assertEquals(1, metrics.count("status GET " + ROUTE + " 503"));
+        Assert.assertEquals(1, metrics.count("status GET " + ROUTE + " 200"));
+
+        Pet pet = new Pet(1L, "pet");
+        try {
+            restClient.post("/pets", new TypeReference<Response<Pet>>() {
+            }, pet);
+            Assert.fail();
+        } catch (RestApiClientException e) {
+            Assert.assertEquals(1, metrics.count("status POST localhost:8089/pets 400"));
+            Assert.assertEquals(MAPPER.writeValueAsBytes(pet).length, metrics.sum("request POST localhost:8089/pets"));
+            Assert.assertEquals(1, metrics.count("time POST localhost:8089/pets TOTAL"));
+        }
+    }
+
+    @Test
+    public void poolGaugesTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+        });
+        Assert.assertEquals(0, metrics.gauges.get("pool.leased sync").getAsLong());
+        Assert.assertEquals(1, metrics.gauges.get("pool.available sync").getAsLong());
+        Assert.assertEquals(0, metrics.gauges.get("pool.pending sync").getAsLong());
+        Assert.assertEquals(0, metrics.gauges.get("pool.leased async").getAsLong());
+    }
+
+    private static class RecordingMetrics implements MetricsRecorder {
+
+        private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+        private final Map<String, AtomicLong> sums = new ConcurrentHashMap<>();
+
+        private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+        @Override
+        public void recordTime(String method, String route, Phase phase, long durationNanos) {
+            Assert.assertTrue(durationNanos >= 0);
+            record("time " + method + " " + route + " " + phase, durationNanos);
+        }
+
+        @Override
+        public void recordStatus(String method, String route, int statusCode) {
+            record("status " + method + " " + route + " " + statusCode, 1);
+        }
+
+        @Override
+        public void recordRetry(String method, String route) {
+            record("retry " + method + " " + route, 1);
+        }
+
+        @Override
+        public void recordRequestSize(String method, String route, long bytes) {
+            record("request " + method + " " + route, bytes);
+        }
+
+        @Override
+        public void recordResponseSize(String method, String route, long bytes) {
+            record("response " + method + " " + route, bytes);
+        }
+
+        @Override
+        public void registerGauge(String name, String pool, LongSupplier value) {
+            gauges.put(name + " " + pool, value);
+        }
+
+        private void record(String key, long value) {
+            counts.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+            sums.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(value);
+        }
+
+        long count(String key) {
+            AtomicLong count = counts.get(key);
+            return count == null ? 0 : count.get();
+        }
+
+        long sum(String key) {
+            AtomicLong sum = sums.get(key);
+            return sum == null ? 0 : sum.get();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.stream.Paginator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+
+public class PaginatorTest extends AbstractRestServiceTest {
+
+    private void stubPage(int limit, long skip, int count, Long total) throws JsonProcessingException {
+        List<Pet> pets = new ArrayList<>();
+        for (long i = skip; i < skip + count; i++) {
+            pets.add(new Pet(i, "pet" + i));
+        }
+        Response<List<Pet>> page = createResponse(pets);
+        page.setLimit(limit);
+        page.setSkip(skip);
+        page.setTotal(total);
+        stubFor(get(urlEqualTo("/pets?limit=" + limit + "&skip=" + skip))
+                .withBasicAuth("username", "password")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(page))));
+    }
+
+    @Test
+    public void allPagesTest() throws JsonProcessingException {
+        stubPage(10, 0, 10, 35L);
+        stubPage(10, 10, 10, 35L);
+        stubPage(10, 20, 10, 35L);
+        stubPage(10, 30, 5, 35L);
+
+        try (Paginator<Pet> pets = client.getAllPets(10, 3)) {
+            List<Long> ids = pets.stream().map(Pet::getId).collect(Collectors.toList());
+            Assert.assertEquals(35, ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Assert.assertEquals(Long.valueOf(i), ids.get(i));
+            }
+            Assert.assertEquals(Long.valueOf(35L), pets.getTotal());
+        }
+        verify(exactly(4), getRequestedFor(urlPathEqualTo("/pets")));
+    }
+
+    @Test
+    public void unknownTotalTest() throws JsonProcessingException {
+        stubPage(10, 0, 10, null);
+        stubPage(10, 10, 10, null);
+        stubPage(10, 20, 0, null);
+
+        try (Paginator<Pet> pets = client.getAllPets(10, 1)) {
+            Assert.assertEquals(20, pets.stream().count());
+        }
+        verify(exactly(3), getRequestedFor(urlPathEqualTo("/pets")));
+    }
+
+    @Test
+    public void serverLimitTest() throws JsonProcessingException {
+        //server caps page size to 5
+        List<Pet> pets = new ArrayList<>();
+        for (long i = 0; i < 5; i++) {
+            pets.add(new Pet(i, "pet" + i));
+        }
+        Response<List<Pet>> first = createResponse(pets);
+        first.setLimit(5);
+        first.setTotal(8L);
+        stubFor(get(urlEqualTo("/pets?limit=100&skip=0"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(first))));
+        stubPage(5, 5, 3, 8L);
+
+        try (Paginator<Pet> paginator = client.getAllPets(100, 2)) {
+            Assert.assertEquals(8, paginator.stream().map(Pet::getId).distinct().count());
+        }
+    }
+
+    @Test
+    public void shortPageTest() throws JsonProcessingException {
+        //server silently returns fewer elements than asked while total says more remain
+        List<Pet> pets = new ArrayList<>();
+        for (long i = 10; i < 17; i++) {
+            pets.add(new Pet(i, "pet" + i));
+        }
+        Response<List<Pet>> shortPage = createResponse(pets);
+        shortPage.setTotal(25L);
+        stubPage(10, 0, 10, 25L);
+        stubFor(get(urlEqualTo("/pets?limit=10&skip=10"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(shortPage))));
+        //requested ahead before the short page is seen, then dropped
+        stubPage(10, 20, 5, 25L);
+        stubPage(10, 17, 8, 25L);
+
+        try (Paginator<Pet> paginator = client.getAllPets(10, 2)) {
+            List<Long> ids = paginator.stream().map(Pet::getId).collect(Collectors.toList());
+            Assert.assertEquals(25, ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Assert.assertEquals(Long.valueOf(i), ids.get(i));
+            }
+        }
+        //page size is kept
+        verify(getRequestedFor(urlEqualTo("/pets?limit=10&skip=17")));
+        verify(exactly(0), getRequestedFor(urlMatching("/pets\\?limit=7.*")));
+    }
+
+    @Test(expected = RestApiClientException.class)
+    public void pageErrorTest() throws JsonProcessingException {
+        stubPage(10, 0, 10, 20L);
+        stubFor(get(urlEqualTo("/pets?limit=10&skip=10"))
+                .willReturn(serverError().withBody(MAPPER.writeValueAsString(createResponse("error")))));
+
+        try (Paginator<Pet> pets = client.getAllPets(10, 2)) {
+            pets.stream().count();
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.mykhaliev.api.client;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.mykhaliev.api.client.model.api.BatchItemResult;
 import com.mykhaliev.api.client.model.api.Response;
 import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.stream.ResponseStream;
 import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 
@@ -34,6 +42,31 @@ public class PetstoreRestClientTest extends AbstractRestServiceTest {
         Assert.assertEquals("pet", response.getResult().get(0).getName());
     }
 
+    @Test
+    public void streamPetsTest() throws JsonProcessingException {
+        List<Pet> pets = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            pets.add(new Pet(i, "pet" + i));
+        }
+        Response<List<Pet>> body = createResponse(pets);
+        body.setLimit(1000);
+        body.setSkip(0L);
+        body.setTotal(5000L);
+
+        stubFor(get(urlEqualTo("/pets"))
+                .withHeader("Accept", equalTo("application/json"))
+                .withBasicAuth("username", "password")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(body))));
+
+        try (ResponseStream<Pet> response = client.streamPets()) {
+            List<String> names = response.stream().map(Pet::getName).collect(Collectors.toList());
+            Assert.assertEquals(1000, names.size());
+            Assert.assertEquals("pet999", names.get(999));
+            Assert.assertEquals(1, response.getEnvelope().getApiVersion());
+            Assert.assertEquals(Long.valueOf(5000L), response.getEnvelope().getTotal());
+        }
+    }
+
     @Test
     public void getSinglePetTest() throws JsonProcessingException {
         Pet pet = new Pet(1L, "pet");
@@ -65,6 +98,41 @@ public class PetstoreRestClientTest extends AbstractRestServiceTest {
         Assert.assertEquals("pet", response.getResult().getName());
     }
 
+    @Test
+    public void getPetsByIdsTest() throws JsonProcessingException {
+        for (long id = 1; id <= 3; id++) {
+            stubFor(get(urlEqualTo("/pets/" + id))
+                    .withBasicAuth("username", "password")
+                    .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(id, "pet"))))));
+        }
+        stubFor(get(urlEqualTo("/pets/4"))
+                .willReturn(notFound().withBody(MAPPER.writeValueAsString(createResponse("not found")))));
+
+        List<BatchItemResult<Long, Response<Pet>>> results = client.getPetsByIds(Arrays.asList(1L, 2L, 3L, 4L));
+        Assert.assertEquals(4, results.size());
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(results.get(i).isSuccess());
+            Assert.assertEquals(results.get(i).getItem(), results.get(i).getResult().getResult().getId());
+        }
+        Assert.assertFalse(results.get(3).isSuccess());
+        Assert.assertTrue(results.get(3).getError().getMessage().contains("404"));
+    }
+
+    @Test
+    public void saveAllTest() throws JsonProcessingException {
+        stubFor(post(urlEqualTo("/pets"))
+                .withBasicAuth("username", "password")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        List<Pet> pets = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            pets.add(new Pet(null, "pet"));
+        }
+        List<BatchItemResult<Pet, Response<Pet>>> results = client.saveAll(pets);
+        Assert.assertEquals(25, results.stream().filter(BatchItemResult::isSuccess).count());
+        verify(exactly(25), postRequestedFor(urlEqualTo("/pets")));
+    }
+
     @Test
     public void updatePetTest() throws JsonProcessingException {
         Pet pet = new Pet(1L, "pet");
@@ -106,6 +174,22 @@ public class PetstoreRestClientTest extends AbstractRestServiceTest {
         Assert.assertEquals("pet", response.getResult().getName());
     }
 
+    @Test
+    public void uploadPetInfoStreamTest() throws IOException {
+        stubFor(post(urlEqualTo("/pets/1/info"))
+                .withHeader("Transfer-Encoding", equalTo("chunked"))
+                .withBasicAuth("username", "password")
+                .withMultipartRequestBody(aMultipart().withName("file").withBody(equalTo("generated info")))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        Pipe pipe = Pipe.open();
+        pipe.sink().write(ByteBuffer.wrap("generated info".getBytes(StandardCharsets.UTF_8)));
+        pipe.sink().close();
+
+        Response<Pet> response = client.uploadPetInfo(1, Channels.newInputStream(pipe.source()), "info.txt");
+        Assert.assertEquals(Long.valueOf(1L), response.getResult().getId());
+        Assert.assertFalse(pipe.source().isOpen());
+    }
+
     @Test
     public void downloadPetInfoTest() throws IOException {
         stubFor(get(urlEqualTo("/pets/1/info"))
@@ -0,0 +1,160 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.cache.RequestCoalescer;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+
+public class RequestCoalescingTest extends AbstractRestServiceTest {
+
+    private static final TypeReference<Response<Pet>> PET_TYPE = new TypeReference<Response<Pet>>() {
+    };
+
+    private static final int CALLERS = 8;
+
+    private final RestApiClient restClient = new RestApiClient(RestApiClientConfig
+            .builder()
+            .apiRootUrl("http://localhost:8089")
+            .username("username")
+            .password("password")
+            .poolMaxPerRoute(CALLERS)
+            .poolMaxTotal(CALLERS)
+            .requestCoalescing(true)
+            .build());
+
+    @After
+    public void closeClient() {
+        restClient.close();
+    }
+
+    @Test
+    public void concurrentGetTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withFixedDelay(500)
+                        .withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        List<Response<Pet>> responses = runConcurrently(() -> restClient.get("/pets/1", PET_TYPE));
+        for (Response<Pet> response : responses) {
+            Assert.assertSame(responses.get(0), response);
+        }
+        verify(exactly(1), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void concurrentGetAsyncTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withFixedDelay(500)
+                        .withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        List<CompletableFuture<Response<Pet>>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(restClient.getAsync("/pets/1", PET_TYPE));
+        }
+        for (CompletableFuture<Response<Pet>> future : futures) {
+            Assert.assertEquals("pet", future.get().getResult().getName());
+        }
+        verify(exactly(1), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void postNotCoalescedTest() throws Exception {
+        stubFor(post(urlEqualTo("/pets"))
+                .willReturn(aResponse().withFixedDelay(500)
+                        .withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        runConcurrently(() -> restClient.post("/pets", PET_TYPE, new Pet(null, "pet")));
+        verify(exactly(CALLERS), postRequestedFor(urlEqualTo("/pets")));
+    }
+
+    @Test
+    public void errorSharedTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(serverError().withFixedDelay(500)
+                        .withBody(MAPPER.writeValueAsString(createResponse("error")))));
+
+        List<Response<Pet>> responses = runConcurrently(() -> {
+            try {
+                return restClient.get("/pets/1", PET_TYPE);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        });
+        for (Response<Pet> response : responses) {
+            Assert.assertNull(response);
+        }
+        verify(exactly(1), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void leaderErrorSharedTest() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch joined = new CountDownLatch(1);
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> coalescer.execute("GET", "/pets/1",
+                null, () -> {
+                    try {
+                        joined.await();
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new OutOfMemoryError("leader");
+                }));
+        Thread.sleep(100);
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> {
+            joined.countDown();
+            return coalescer.execute("GET", "/pets/1", null, () -> "own call");
+        });
+
+        //follower gets the error instead of waiting forever and the flight is gone
+        try {
+            follower.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof OutOfMemoryError);
+        }
+        try {
+            leader.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof OutOfMemoryError);
+        }
+        Assert.assertEquals("next call", coalescer.execute("GET", "/pets/1", null, () -> "next call"));
+    }
+
+    private List<Response<Pet>> runConcurrently(Callable<Response<Pet>> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Response<Pet>>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        List<Response<Pet>> responses = new ArrayList<>();
+        for (Future<Response<Pet>> future : futures) {
+            responses.add(future.get());
+        }
+        executor.shutdown();
+        return responses;
+    }
+}
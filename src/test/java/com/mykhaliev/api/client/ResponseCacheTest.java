@@ -0,0 +1,145 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+
+public class ResponseCacheTest extends AbstractRestServiceTest {
+
+    private static final TypeReference<Response<Pet>> PET_TYPE = new TypeReference<Response<Pet>>() {
+    };
+
+    private final RestApiClient restClient = new RestApiClient(RestApiClientConfig
+            .builder()
+            .apiRootUrl("http://localhost:8089")
+            .username("username")
+            .password("password")
+            .cacheMaxEntries(2)
+            .build());
+
+    @After
+    public void closeClient() {
+        restClient.close();
+    }
+
+    private void stubPet(long id, String cacheControl) throws JsonProcessingException {
+        stubFor(get(urlEqualTo("/pets/" + id))
+                .willReturn(aResponse()
+                        .withHeader("Cache-Control", cacheControl)
+                        .withBody(MAPPER.writeValueAsString(createResponse(new Pet(id, "pet"))))));
+    }
+
+    @Test
+    public void maxAgeHitTest() throws Exception {
+        stubPet(1, "max-age=60");
+
+        Response<Pet> first = restClient.get("/pets/1", PET_TYPE);
+        Response<Pet> second = restClient.get("/pets/1", PET_TYPE);
+        Response<Pet> third = restClient.getAsync("/pets/1", PET_TYPE).get();
+        Assert.assertSame(first, second);
+        Assert.assertSame(first, third);
+        Assert.assertEquals(2, restClient.getResponseCache().getHitCount());
+        verify(exactly(1), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void defaultTtlTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse()
+                        .withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        //response without caching headers lives for default ttl
+        Response<Pet> first = restClient.get("/pets/1", PET_TYPE);
+        Response<Pet> second = restClient.get("/pets/1", PET_TYPE);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, restClient.getResponseCache().getHitCount());
+        verify(exactly(1), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void missCountTest() throws Exception {
+        stubPet(1, "max-age=60");
+        stubFor(get(urlEqualTo("/pets/2")).willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        restClient.get("/pets/1", PET_TYPE);
+        restClient.get("/pets/1", PET_TYPE);
+        try {
+            restClient.get("/pets/2", PET_TYPE);
+            Assert.fail();
+        } catch (RestApiClientException e) {
+            //failed before it could be stored, still a miss
+        }
+        Assert.assertEquals(2, restClient.getResponseCache().getMissCount());
+    }
+
+    @Test
+    public void noStoreTest() throws Exception {
+        stubPet(1, "no-store");
+
+        restClient.get("/pets/1", PET_TYPE);
+        restClient.get("/pets/1", PET_TYPE);
+        Assert.assertEquals(0, restClient.getResponseCache().size());
+        verify(exactly(2), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void etagRevalidationTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse()
+                        .withHeader("Cache-Control", "no-cache")
+                        .withHeader("ETag", "\"v1\"")
+                        .withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        stubFor(get(urlEqualTo("/pets/1"))
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304)));
+
+        Response<Pet> first = restClient.get("/pets/1", PET_TYPE);
+        Response<Pet> second = restClient.get("/pets/1", PET_TYPE);
+        Response<Pet> third = restClient.getAsync("/pets/1", PET_TYPE).get();
+        Assert.assertSame(first, second);
+        Assert.assertSame(first, third);
+        Assert.assertEquals(2, restClient.getResponseCache().getRevalidationCount());
+        verify(exactly(2), getRequestedFor(urlEqualTo("/pets/1")).withHeader("If-None-Match", equalTo("\"v1\"")));
+    }
+
+    @Test
+    public void evictionTest() throws Exception {
+        stubPet(1, "max-age=60");
+        stubPet(2, "max-age=60");
+        stubPet(3, "max-age=60");
+
+        restClient.get("/pets/1", PET_TYPE);
+        restClient.get("/pets/2", PET_TYPE);
+        restClient.get("/pets/1", PET_TYPE);
+        restClient.get("/pets/3", PET_TYPE);
+        Assert.assertEquals(1, restClient.getResponseCache().getEvictionCount());
+
+        //pet 2 was least recently used
+        restClient.get("/pets/1", PET_TYPE);
+        restClient.get("/pets/2", PET_TYPE);
+        verify(exactly(1), getRequestedFor(urlEqualTo("/pets/1")));
+        verify(exactly(2), getRequestedFor(urlEqualTo("/pets/2")));
+    }
+
+    @Test
+    public void unsafeRequestInvalidatesTest() throws Exception {
+        stubPet(1, "max-age=60");
+        stubFor(put(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "new"))))));
+
+        restClient.get("/pets/1", PET_TYPE);
+        restClient.put("/pets/1", PET_TYPE, new Pet(1L, "new"));
+        restClient.get("/pets/1", PET_TYPE);
+        verify(exactly(2), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+}
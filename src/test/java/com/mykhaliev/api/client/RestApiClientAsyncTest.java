@@ -0,0 +1,142 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.MultipartPart;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+
+public class RestApiClientAsyncTest extends AbstractRestServiceTest {
+
+    private final RestApiClient restClient = new RestApiClient(testConfig);
+
+    @After
+    public void closeClient() {
+        restClient.close();
+    }
+
+    @Test
+    public void getAsyncTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .withHeader("Content-type", equalTo("application/json"))
+                .withHeader("Accept", equalTo("application/json"))
+                .withBasicAuth("username", "password")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        Response<Pet> response = restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+        }).get();
+        Assert.assertEquals(Long.valueOf(1L), response.getResult().getId());
+        Assert.assertEquals("pet", response.getResult().getName());
+    }
+
+    @Test
+    public void concurrentGetAsyncTest() throws Exception {
+        for (long id = 0; id < 50; id++) {
+            stubFor(get(urlEqualTo("/pets/" + id))
+                    .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(id, "pet"))))));
+        }
+        List<CompletableFuture<Response<Pet>>> futures = new ArrayList<>();
+        for (long id = 0; id < 50; id++) {
+            futures.add(restClient.getAsync("/pets/" + id, new TypeReference<Response<Pet>>() {
+            }));
+        }
+        for (int id = 0; id < 50; id++) {
+            Assert.assertEquals(Long.valueOf(id), futures.get(id).get().getResult().getId());
+        }
+    }
+
+    @Test
+    public void postAsyncTest() throws Exception {
+        Pet pet = new Pet(1L, "pet");
+        stubFor(post(urlEqualTo("/pets"))
+                .withHeader("Content-type", equalTo("application/json"))
+                .withBasicAuth("username", "password")
+                .withRequestBody(matchingJsonPath("$[?(@.name=='pet')]"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(pet)))));
+
+        Response<Pet> response = restClient.postAsync("/pets", new TypeReference<Response<Pet>>() {
+        }, pet).get();
+        Assert.assertEquals("pet", response.getResult().getName());
+    }
+
+    @Test
+    public void postFileAsyncTest() throws Exception {
+        stubFor(post(urlEqualTo("/pets/1/info"))
+                .withBasicAuth("username", "password")
+                .withMultipartRequestBody(aMultipart().withName("file"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        File infoFile = new File(this.getClass().getClassLoader().getResource("dummy.txt").getFile());
+
+        Response<Pet> response = restClient.postFileAsync("/pets/1/info", new TypeReference<Response<Pet>>() {
+        }, infoFile).get();
+        Assert.assertEquals(Long.valueOf(1L), response.getResult().getId());
+    }
+
+    @Test
+    public void postMultipartAsyncTest() throws Exception {
+        stubFor(post(urlEqualTo("/pets/1/info"))
+                .withMultipartRequestBody(aMultipart().withName("file").withBody(equalTo("info")))
+                .withMultipartRequestBody(aMultipart().withName("notes").withBody(equalTo("streamed notes")))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        File infoFile = new File(this.getClass().getClassLoader().getResource("dummy.txt").getFile());
+        InputStream notes = new ByteArrayInputStream("streamed notes".getBytes(StandardCharsets.UTF_8));
+
+        Response<Pet> response = restClient.postMultipartAsync("/pets/1/info", new TypeReference<Response<Pet>>() {
+        }, Arrays.asList(MultipartPart.of("file", infoFile), MultipartPart.of("notes", "notes.txt", notes))).get();
+        Assert.assertEquals(Long.valueOf(1L), response.getResult().getId());
+    }
+
+    @Test
+    public void errorAsyncTest() throws JsonProcessingException, InterruptedException {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(badRequest().withBody(MAPPER.writeValueAsString(createResponse("bad request")))));
+        try {
+            restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+            }).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RestApiClientException);
+        }
+    }
+
+    @Test
+    public void retryAsyncTest() throws JsonProcessingException, InterruptedException {
+        RestApiClientConfig retryConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .retryCount(5)
+                .retryIntervalMilliseconds(1)
+                .build();
+
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(serviceUnavailable().withBody(MAPPER.writeValueAsString(createResponse("bad request")))));
+        try (RestApiClient retryClient = new RestApiClient(retryConfig)) {
+            retryClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+            }).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            //5 is number of retries, so 1+5
+            verify(exactly(6), getRequestedFor(urlEqualTo("/pets/1")));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.mykhaliev.api.client.concurrent.VirtualThreads;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+
+public class RestApiClientConcurrencyTest extends AbstractRestServiceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestApiClientConcurrencyTest.class);
+
+    private static final int PETS = 50;
+
+    private static final int REQUESTS_PER_THREAD = 200;
+
+    @Test
+    public void sharedClientStressTest() throws Exception {
+        for (long id = 0; id < PETS; id++) {
+            stubFor(get(urlEqualTo("/pets/" + id))
+                    .withBasicAuth("username", "password")
+                    .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(id, "pet" + id))))));
+        }
+        int cores = Math.max(2, Runtime.getRuntime().availableProcessors());
+        RestApiClientConfig config = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .poolMaxPerRoute(cores)
+                .poolMaxTotal(cores)
+                .build();
+
+        try (PetstoreRestClient sharedClient = new PetstoreRestClient(config)) {
+            //warm up connections
+            run(sharedClient, cores);
+            double single = run(sharedClient, 1);
+            double multi = run(sharedClient, cores);
+            LOGGER.info("Shared client throughput: 1 thread {} req/s, {} threads {} req/s",
+                    (long) single, cores, (long) multi);
+        }
+        verify(exactly(0), getRequestedFor(anyUrl()).withoutHeader("Authorization"));
+    }
+
+    @Test
+    public void virtualThreadsModeTest() throws Exception {
+        //runs on java 21 against the multi-release classes, elsewhere the client falls back to io reactor
+        Assume.assumeTrue(VirtualThreads.isSupported());
+        for (long id = 0; id < PETS; id++) {
+            stubFor(get(urlEqualTo("/pets/" + id))
+                    .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(id, "pet" + id))))));
+        }
+        RestApiClientConfig config = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .poolMaxPerRoute(2)
+                .poolMaxTotal(2)
+                .virtualThreads(true)
+                .build();
+
+        //callers far outnumber connections, they queue at the gate and keep pool timeout
+        try (PetstoreRestClient sharedClient = new PetstoreRestClient(config)) {
+            double multi = run(sharedClient, 64);
+            LOGGER.info("Virtual threads mode throughput: 64 callers on 2 connections {} req/s", (long) multi);
+            List<Long> ids = new ArrayList<>();
+            for (long id = 0; id < PETS; id++) {
+                ids.add(id);
+            }
+            Assert.assertTrue(sharedClient.getPetsByIds(ids).stream()
+                    .allMatch(result -> result.getResult().getResult().getId().equals(result.getItem())));
+        }
+    }
+
+    /**
+     * Runs requests from given number of threads and checks every response belongs to its request.
+     *
+     * @return requests per second
+     */
+    private double run(PetstoreRestClient sharedClient, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int thread = 0; thread < threads; thread++) {
+            int offset = thread;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    long id = (offset + i) % PETS;
+                    Response<Pet> response = sharedClient.getPetById(id);
+                    Assert.assertEquals(Long.valueOf(id), response.getResult().getId());
+                    Assert.assertEquals("pet" + id, response.getResult().getName());
+                }
+                return REQUESTS_PER_THREAD;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        return total * 1e9 / elapsed;
+    }
+}
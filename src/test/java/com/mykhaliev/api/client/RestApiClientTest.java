@@ -1,10 +1,27 @@
 package com.mykhaliev.api.client;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.tomakehurst.wiremock.http.Fault;
 import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.CallNotPermittedException;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.resilience.CircuitBreaker;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 
 
 public class RestApiClientTest extends AbstractRestServiceTest {
@@ -60,4 +77,344 @@ public class RestApiClientTest extends AbstractRestServiceTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void retryAfterTest() throws JsonProcessingException {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .retryCount(2)
+                .retryIntervalMilliseconds(1)
+                .build();
+
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("throttled").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "1"))
+                .willSetStateTo("allowed"));
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("throttled").whenScenarioStateIs("allowed")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        try (PetstoreRestClient client = new PetstoreRestClient(testConfig)) {
+            long start = System.nanoTime();
+            Assert.assertEquals("pet", client.getPetById(1).getResult().getName());
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 1000);
+            verify(exactly(2), getRequestedFor(urlEqualTo("/pets/1")));
+        }
+    }
+
+    @Test
+    public void retryConnectionResetTest() throws JsonProcessingException {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .retryCount(2)
+                .retryIntervalMilliseconds(1)
+                .build();
+
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("reset").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFault(Fault.EMPTY_RESPONSE))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("reset").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        stubFor(post(urlEqualTo("/pets")).willReturn(aResponse().withFault(Fault.EMPTY_RESPONSE)));
+
+        try (PetstoreRestClient client = new PetstoreRestClient(testConfig)) {
+            Assert.assertEquals("pet", client.getPetById(1).getResult().getName());
+            try {
+                client.savePet(new Pet(1L, "pet"));
+                Assert.fail();
+            } catch (RestApiClientException e) {
+                //post may have reached the server, it is not retried
+                verify(exactly(1), postRequestedFor(urlEqualTo("/pets")));
+            }
+        }
+    }
+
+    @Test
+    public void retryBudgetTest() throws JsonProcessingException {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .retryCount(3)
+                .retryIntervalMilliseconds(1)
+                .retryBudgetPercent(10)
+                .retryBudgetMinPerSecond(1)
+                .build();
+
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(serviceUnavailable().withBody(MAPPER.writeValueAsString(createResponse("unavailable")))));
+
+        try (PetstoreRestClient client = new PetstoreRestClient(testConfig)) {
+            for (int i = 0; i < 20; i++) {
+                try {
+                    client.getPetById(1);
+                    Assert.fail();
+                } catch (RestApiClientException e) {
+                    //expected
+                }
+            }
+            //20 requests deposit 2 retries, reserve adds 1 or 2 depending on second boundary, not 3 per request
+            int requests = findAll(getRequestedFor(urlEqualTo("/pets/1"))).size();
+            Assert.assertTrue(String.valueOf(requests), requests >= 22 && requests <= 25);
+        }
+    }
+
+    @Test
+    public void defaultRetryIntervalTest() throws JsonProcessingException {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .retryCount(1)
+                .build();
+
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("unavailable").whenScenarioStateIs(STARTED)
+                .willReturn(serviceUnavailable())
+                .willSetStateTo("available"));
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("unavailable").whenScenarioStateIs("available")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        try (PetstoreRestClient client = new PetstoreRestClient(testConfig)) {
+            long start = System.nanoTime();
+            Assert.assertEquals("pet", client.getPetById(1).getResult().getName());
+            //default interval of a second with equal jitter
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue(String.valueOf(elapsed), elapsed >= 500);
+        }
+        verify(exactly(2), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void noRetryCountConnectionResetTest() throws JsonProcessingException {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .build();
+
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("reset").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFault(Fault.EMPTY_RESPONSE))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("reset").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        //apache client still retries dropped idempotent requests
+        try (PetstoreRestClient client = new PetstoreRestClient(testConfig)) {
+            Assert.assertEquals("pet", client.getPetById(1).getResult().getName());
+        }
+        verify(exactly(2), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void hedgingTest() throws Exception {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .hedging(true)
+                .hedgingDelayMilliseconds(100)
+                .build();
+
+        String body = MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet")));
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("slow").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFixedDelay(3000).withBody(body))
+                .willSetStateTo("hedged"));
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("slow").whenScenarioStateIs("hedged")
+                .willReturn(aResponse().withBody(body))
+                .willSetStateTo(STARTED));
+        stubFor(post(urlEqualTo("/pets")).willReturn(aResponse().withFixedDelay(300).withBody(body)));
+
+        try (PetstoreRestClient client = new PetstoreRestClient(testConfig);
+             RestApiClient restClient = new RestApiClient(testConfig)) {
+            long start = System.nanoTime();
+            Assert.assertEquals("pet", client.getPetById(1).getResult().getName());
+            Assert.assertEquals("pet", restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+            }).get().getResult().getName());
+            //hedge answered, slow attempts were not waited for
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(2000));
+            verify(exactly(4), getRequestedFor(urlEqualTo("/pets/1")));
+
+            client.savePet(new Pet(1L, "pet"));
+            //post is not idempotent
+            verify(exactly(1), postRequestedFor(urlEqualTo("/pets")));
+        }
+    }
+
+    @Test
+    public void deleteNotHedgedTest() throws Exception {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .hedging(true)
+                .hedgingDelayMilliseconds(100)
+                .hedgingBudgetPercent(-1)
+                .build();
+        stubFor(delete(urlEqualTo("/pets/1")).willReturn(aResponse().withFixedDelay(300)
+                .withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        try (RestApiClient restClient = new RestApiClient(testConfig)) {
+            restClient.delete("/pets/1");
+            restClient.deleteAsync("/pets/1").get();
+            //second delete may answer 404 before the first one succeeds
+            verify(exactly(2), deleteRequestedFor(urlEqualTo("/pets/1")));
+        }
+    }
+
+    @Test
+    public void circuitBreakerTest() throws JsonProcessingException {
+        List<String> transitions = new CopyOnWriteArrayList<>();
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .circuitBreakerFailureRateThreshold(50)
+                .circuitBreakerMinimumCalls(4)
+                .circuitBreakerListener((route, from, to) -> transitions.add(route + " " + from + "->" + to))
+                .build();
+
+        RestApiClient restClient = new RestApiClient(testConfig);
+
+        stubFor(get(urlMatching("/pets/[0-9]+"))
+                .willReturn(serverError().withBody(MAPPER.writeValueAsString(createResponse("error")))));
+        for (int id = 0; id < 10; id++) {
+            try {
+                restClient.get("/pets/" + id, new TypeReference<Response<Pet>>() {
+                });
+                Assert.fail();
+            } catch (CallNotPermittedException e) {
+                Assert.assertTrue(id >= 4);
+            } catch (RestApiClientException e) {
+                Assert.assertTrue(id < 4);
+            }
+        }
+        //all pets share one route, calls after breaker opened did not reach the server
+        verify(exactly(4), getRequestedFor(urlMatching("/pets/[0-9]+")));
+        Assert.assertEquals("[localhost:8089/pets/{id} CLOSED->OPEN]", transitions.toString());
+        Assert.assertEquals(CircuitBreaker.State.OPEN,
+                restClient.getCircuitBreakers().get("localhost:8089/pets/{id}").getState());
+        restClient.close();
+    }
+
+    @Test
+    public void routeLimitTest() throws Exception {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .circuitBreakerFailureRateThreshold(50)
+                .build();
+
+        stubFor(get(urlPathMatching("/users/.*"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse("user")))));
+        try (RestApiClient restClient = new RestApiClient(testConfig)) {
+            //user names are not ids, every user makes a route of its own up to the limit
+            for (int i = 0; i < 1010; i++) {
+                restClient.get("/users/user" + (char) ('a' + i % 26) + i / 26, new TypeReference<Response<String>>() {
+                });
+            }
+            Assert.assertEquals(1001, restClient.getCircuitBreakers().size());
+            Assert.assertTrue(restClient.getCircuitBreakers().containsKey("localhost:8089/{other}"));
+        }
+    }
+
+    @Test
+    public void bulkheadTest() throws Exception {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .bulkheadMaxConcurrentCalls(2)
+                .build();
+
+        RestApiClient restClient = new RestApiClient(testConfig);
+
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withFixedDelay(500)
+                        .withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        stubFor(get(urlEqualTo("/pets"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new ArrayList<>())))));
+
+        List<CompletableFuture<Response<Pet>>> slow = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            slow.add(restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+            }));
+        }
+        //other route is not affected by slow one
+        Assert.assertNotNull(restClient.get("/pets", new TypeReference<Response<List<Pet>>>() {
+        }));
+        try {
+            slow.get(2).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof CallNotPermittedException);
+        }
+        Assert.assertEquals("pet", slow.get(0).get().getResult().getName());
+        Assert.assertEquals("pet", slow.get(1).get().getResult().getName());
+        //permits are released once calls complete
+        Assert.assertEquals("pet", restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+        }).get().getResult().getName());
+        restClient.close();
+    }
+
+    @Test
+    public void ignoredBodyReleasesConnectionTest() {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .poolMaxPerRoute(1)
+                .poolMaxTotal(1)
+                .connectionRequestTimeout(500)
+                .build();
+
+        stubFor(delete(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withBody("{\"apiVersion\":1}")));
+        try (PetstoreRestClient client = new PetstoreRestClient(testConfig)) {
+            for (int i = 0; i < 5; i++) {
+                client.removePet(1);
+            }
+        }
+        verify(exactly(5), deleteRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+    @Test
+    public void parseErrorReleasesConnectionTest() {
+        RestApiClientConfig testConfig = RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .password("password")
+                .poolMaxPerRoute(1)
+                .poolMaxTotal(1)
+                .connectionRequestTimeout(500)
+                .build();
+
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withBody("{\"apiVersion\":1,\"result\":{\"id\":\"not a number\"}}")));
+        try (PetstoreRestClient client = new PetstoreRestClient(testConfig)) {
+            for (int i = 0; i < 5; i++) {
+                try {
+                    client.getPetById(1);
+                    Assert.fail();
+                } catch (RestApiClientException e) {
+                    Assert.assertTrue(e.getCause() instanceof IOException);
+                }
+            }
+        }
+        verify(exactly(5), getRequestedFor(urlEqualTo("/pets/1")));
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.mykhaliev.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.model.api.Response;
+import com.mykhaliev.api.client.model.dto.Pet;
+import com.mykhaliev.api.client.tracing.Span;
+import com.mykhaliev.api.client.tracing.Tracer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+
+
+public class TracingTest extends AbstractRestServiceTest {
+
+    private final RecordingTracer tracer = new RecordingTracer();
+
+    private final RestApiClient restClient = new RestApiClient(RestApiClientConfig
+            .builder()
+            .apiRootUrl("http://localhost:8089")
+            .username("username")
+            .password("password")
+            .retryCount(1)
+            .retryIntervalMilliseconds(1)
+            .tracer(tracer)
+            .build());
+
+    @After
+    public void closeClient() {
+        restClient.close();
+    }
+
+    @Test
+    public void phaseSpansTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        restClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+        });
+
+        RecordingSpan call = tracer.single("GET localhost:8089/pets/{id}");
+        RecordingSpan attempt = tracer.single("attempt");
+        Assert.assertNull(call.parent);
+        Assert.assertSame(call, attempt.parent);
+        Assert.assertEquals(200L, attempt.attributes.get("http.status_code"));
+        for (String phase : new String[]{"dns", "connect", "request", "response"}) {
+            Assert.assertSame(phase, attempt, tracer.single(phase).parent);
+        }
+        Assert.assertSame(call, tracer.single("parse").parent);
+        Assert.assertTrue(tracer.spans.stream().allMatch(span -> span.ended));
+
+        LoggedRequest request = findAll(getRequestedFor(urlEqualTo("/pets/1"))).get(0);
+        Assert.assertEquals("00-" + call.traceId + "-" + attempt.spanId + "-01", request.getHeader("traceparent"));
+    }
+
+    @Test
+    public void asyncPropagationTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("unavailable").whenScenarioStateIs(STARTED)
+                .willReturn(serviceUnavailable())
+                .willSetStateTo("available"));
+        stubFor(get(urlEqualTo("/pets/1")).inScenario("unavailable").whenScenarioStateIs("available")
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+
+        RecordingSpan parent = tracer.startSpan("caller", null);
+        tracer.current.set(parent);
+        Assert.assertEquals("pet", restClient.getAsync("/pets/1", new TypeReference<Response<Pet>>() {
+        }).get().getResult().getName());
+        tracer.current.remove();
+
+        RecordingSpan call = tracer.single("GET localhost:8089/pets/{id}");
+        Assert.assertSame(parent, call.parent);
+        Assert.assertEquals(parent.traceId, call.traceId);
+        List<RecordingSpan> attempts = tracer.named("attempt");
+        Assert.assertEquals(2, attempts.size());
+        Assert.assertEquals(503L, attempts.get(0).attributes.get("http.status_code"));
+        Assert.assertEquals(200L, attempts.get(1).attributes.get("http.status_code"));
+        //retry is sent with its own attempt span id
+        List<String> traceparents = findAll(getRequestedFor(urlEqualTo("/pets/1"))).stream()
+                .map(request -> request.getHeader("traceparent")).collect(Collectors.toList());
+        Assert.assertEquals("00-" + call.traceId + "-" + attempts.get(0).spanId + "-01", traceparents.get(0));
+        Assert.assertEquals("00-" + call.traceId + "-" + attempts.get(1).spanId + "-01", traceparents.get(1));
+        Assert.assertSame(call, tracer.single("parse").parent);
+        Assert.assertTrue(call.ended);
+    }
+
+    @Test
+    public void noopTest() throws Exception {
+        stubFor(get(urlEqualTo("/pets/1"))
+                .willReturn(aResponse().withBody(MAPPER.writeValueAsString(createResponse(new Pet(1L, "pet"))))));
+        RestApiClient noopClient = new RestApiClient(RestApiClientConfig
+                .builder()
+                .apiRootUrl("http://localhost:8089")
+                .username("username")
+                .tracer(Tracer.NOOP)
+                .build());
+        try {
+            noopClient.get("/pets/1", new TypeReference<Response<Pet>>() {
+            });
+        } finally {
+            noopClient.close();
+        }
+        verify(getRequestedFor(urlEqualTo("/pets/1")).withHeader("traceparent", absent()));
+    }
+
+    private static class RecordingTracer implements Tracer {
+
+        private final List<RecordingSpan> spans = new CopyOnWriteArrayList<>();
+
+        private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+        private final AtomicLong ids = new AtomicLong();
+
+        @Override
+        public RecordingSpan startSpan(String name, Span parent) {
+            RecordingSpan span = new RecordingSpan(name, (RecordingSpan) parent,
+                    parent == null ? String.format("%032x", ids.incrementAndGet()) : parent.getTraceId(),
+                    String.format("%016x", ids.incrementAndGet()));
+            spans.add(span);
+            return span;
+        }
+
+        @Override
+        public Span currentSpan() {
+            return current.get();
+        }
+
+        List<RecordingSpan> named(String name) {
+            return spans.stream().filter(span -> span.name.equals(name)).collect(Collectors.toList());
+        }
+
+        RecordingSpan single(String name) {
+            List<RecordingSpan> named = named(name);
+            Assert.assertEquals(name, 1, named.size());
+            return named.get(0);
+        }
+    }
+
+    private static class RecordingSpan implements Span {
+
+        private final String name;
+
+        private final RecordingSpan parent;
+
+        private final String traceId;
+
+        private final String spanId;
+
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+        private final List<Throwable> exceptions = new ArrayList<>();
+
+        private volatile boolean ended;
+
+        RecordingSpan(String name, RecordingSpan parent, String traceId, String spanId) {
+            this.name = name;
+            this.parent = parent;
+            this.traceId = traceId;
+            this.spanId = spanId;
+        }
+
+        @Override
+        public String getTraceId() {
+            return traceId;
+        }
+
+        @Override
+        public String getSpanId() {
+            return spanId;
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+            attributes.put(key, Objects.requireNonNull(value));
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+            attributes.put(key, value);
+        }
+
+        @Override
+        public void recordException(Throwable e) {
+            exceptions.add(e);
+        }
+
+        @Override
+        public void end() {
+            Assert.assertFalse(name, ended);
+            ended = true;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mykhaliev.api.client.batch;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.api.BatchItemResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class BatchExecutorTest {
+
+    @Test
+    public void concurrencyLimitTest() {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(i);
+        }
+
+        List<BatchItemResult<Integer, Integer>> results = BatchExecutor.execute(items, item -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                return item * 2;
+            }, executor);
+        }, 4).join();
+        executor.shutdown();
+
+        Assert.assertTrue(maxInFlight.get() <= 4);
+        Assert.assertEquals(200, results.size());
+        for (int i = 0; i < 200; i++) {
+            Assert.assertEquals(Integer.valueOf(i), results.get(i).getItem());
+            Assert.assertEquals(Integer.valueOf(i * 2), results.get(i).getResult());
+        }
+    }
+
+    @Test
+    public void partialFailureTest() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            items.add(i);
+        }
+
+        List<BatchItemResult<Integer, Integer>> results = BatchExecutor.execute(items, item -> {
+            if (item % 2 == 0) {
+                throw new RestApiClientException("even");
+            }
+            return CompletableFuture.completedFuture(item);
+        }, 2).join();
+
+        Assert.assertEquals(100000, results.size());
+        Assert.assertFalse(results.get(0).isSuccess());
+        Assert.assertEquals("even", results.get(0).getError().getMessage());
+        Assert.assertTrue(results.get(1).isSuccess());
+        Assert.assertEquals(Integer.valueOf(1), results.get(1).getResult());
+    }
+
+    @Test
+    public void emptyBatchTest() {
+        Assert.assertTrue(BatchExecutor.execute(new ArrayList<Integer>(), CompletableFuture::completedFuture, 1)
+                .join().isEmpty());
+    }
+}
@@ -0,0 +1,104 @@
+package com.mykhaliev.api.client.connection;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class GatedConnectionManagerTest {
+
+    private final HttpRoute route = new HttpRoute(new HttpHost("localhost", 8089));
+
+    @Test
+    public void nobodyWaitsInPoolTest() throws Exception {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        pool.setDefaultMaxPerRoute(2);
+        pool.setMaxTotal(3);
+        GatedConnectionManager manager = new GatedConnectionManager(pool, pool::getMaxPerRoute, 3);
+        AtomicInteger leased = new AtomicInteger();
+        AtomicInteger maxLeased = new AtomicInteger();
+        AtomicInteger maxPending = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<?>> leases = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                leases.add(executor.submit(() -> {
+                    HttpClientConnection connection = manager.requestConnection(route, null).get(5, TimeUnit.SECONDS);
+                    maxLeased.accumulateAndGet(leased.incrementAndGet(), Math::max);
+                    maxPending.accumulateAndGet(pool.getTotalStats().getPending(), Math::max);
+                    Thread.sleep(5);
+                    leased.decrementAndGet();
+                    manager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+                    return null;
+                }));
+            }
+            for (Future<?> lease : leases) {
+                lease.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            manager.shutdown();
+        }
+        Assert.assertEquals(2, maxLeased.get());
+        Assert.assertEquals(0, maxPending.get());
+    }
+
+    @Test
+    public void routeLimitTest() throws Exception {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        pool.setDefaultMaxPerRoute(1);
+        pool.setMaxPerRoute(route, 2);
+        GatedConnectionManager manager = new GatedConnectionManager(pool, pool::getMaxPerRoute, 10);
+        HttpRoute other = new HttpRoute(new HttpHost("localhost", 8090));
+        try {
+            //limit of its own route applies, not the default one
+            HttpClientConnection first = manager.requestConnection(route, null).get(100, TimeUnit.MILLISECONDS);
+            HttpClientConnection second = manager.requestConnection(route, null).get(100, TimeUnit.MILLISECONDS);
+            HttpClientConnection third = manager.requestConnection(other, null).get(100, TimeUnit.MILLISECONDS);
+            try {
+                manager.requestConnection(other, null).get(100, TimeUnit.MILLISECONDS);
+                Assert.fail();
+            } catch (ConnectionPoolTimeoutException e) {
+                //default limit of other route
+            }
+            manager.releaseConnection(first, null, 0, TimeUnit.MILLISECONDS);
+            manager.releaseConnection(second, null, 0, TimeUnit.MILLISECONDS);
+            manager.releaseConnection(third, null, 0, TimeUnit.MILLISECONDS);
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void timeoutTest() throws Exception {
+        GatedConnectionManager manager = new GatedConnectionManager(new PoolingHttpClientConnectionManager(), key -> 1, 1);
+        try {
+            HttpClientConnection connection = manager.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+            long start = System.nanoTime();
+            try {
+                manager.requestConnection(route, null).get(100, TimeUnit.MILLISECONDS);
+                Assert.fail();
+            } catch (ConnectionPoolTimeoutException e) {
+                Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            manager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+            //permits of the timed out request are not lost
+            connection = manager.requestConnection(route, null).get(100, TimeUnit.MILLISECONDS);
+            manager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+        } finally {
+            manager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mykhaliev.api.client.connection;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+
+public class LeakDetectingConnectionManagerTest {
+
+    private final HttpRoute route = new HttpRoute(new HttpHost("localhost", 8089));
+
+    @Test
+    public void leakReportedTest() throws Exception {
+        LeakDetectingConnectionManager manager =
+                new LeakDetectingConnectionManager(new PoolingHttpClientConnectionManager(), 50);
+        try {
+            manager.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+            Thread.sleep(300);
+            Assert.assertEquals(1, manager.getLeakCount());
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void releasedNotReportedTest() throws Exception {
+        LeakDetectingConnectionManager manager =
+                new LeakDetectingConnectionManager(new PoolingHttpClientConnectionManager(), 50);
+        try {
+            HttpClientConnection connection = manager.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+            manager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+            Thread.sleep(300);
+            Assert.assertEquals(0, manager.getLeakCount());
+        } finally {
+            manager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.mykhaliev.api.client.download;
+
+import com.mykhaliev.api.client.RestApiClient;
+import com.mykhaliev.api.client.config.RestApiClientConfig;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class FileDownloaderTest {
+
+    private final CloseableHttpClient client = HttpClients.createDefault();
+
+    private RangeServer server;
+
+    private File target;
+
+    @Before
+    public void setup() throws IOException {
+        target = File.createTempFile("download-", ".bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop();
+        client.close();
+        target.delete();
+    }
+
+    @Test
+    public void resumeTest() throws IOException {
+        server = new RangeServer(randomBytes(100 * 1024), 2);
+
+        new FileDownloader(client, HttpClientContext::create, 3, 1).download(server.getUrl(), target.toPath());
+        Assert.assertArrayEquals(server.data, Files.readAllBytes(target.toPath()));
+        Assert.assertEquals(3, server.ranges.size());
+        Assert.assertNull(server.ranges.get(0));
+        Assert.assertTrue(server.ranges.get(1).startsWith("bytes=51200-"));
+    }
+
+    @Test
+    public void clientResumeTest() throws IOException {
+        server = new RangeServer(randomBytes(100 * 1024), 2);
+
+        //client built with defaults resumes dropped downloads
+        try (RestApiClient restClient = new RestApiClient(RestApiClientConfig.builder()
+                .apiRootUrl(server.getRootUrl())
+                .username("username")
+                .password("password")
+                .build())) {
+            restClient.downloadFile("/pets/1/info", target.getPath());
+        }
+        Assert.assertArrayEquals(server.data, Files.readAllBytes(target.toPath()));
+        Assert.assertEquals(3, server.ranges.size());
+    }
+
+    @Test(expected = RestApiClientException.class)
+    public void noResumeTest() throws IOException {
+        server = new RangeServer(randomBytes(100 * 1024), 1);
+
+        new FileDownloader(client, HttpClientContext::create, 0, 1).download(server.getUrl(), target.toPath());
+    }
+
+    @Test
+    public void segmentedTest() throws IOException {
+        server = new RangeServer(randomBytes((int) (3 * FileDownloader.MIN_SEGMENT_SIZE + 17)), 1);
+
+        new FileDownloader(client, HttpClientContext::create, 3, 4).download(server.getUrl(), target.toPath());
+        Assert.assertArrayEquals(server.data, Files.readAllBytes(target.toPath()));
+        //3 segments and one resumed segment
+        Assert.assertEquals(4, server.ranges.size());
+        for (String range : server.ranges) {
+            Assert.assertNotNull(range);
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Minimal http server with range support, first requests drop connection halfway through body.
+     */
+    private static class RangeServer {
+
+        private final byte[] data;
+
+        private final AtomicInteger failures;
+
+        private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+        private final ServerSocket socket;
+
+        RangeServer(byte[] data, int failures) throws IOException {
+            this.data = data;
+            this.failures = new AtomicInteger(failures);
+            socket = new ServerSocket(0);
+            Thread acceptor = new Thread(() -> {
+                while (!socket.isClosed()) {
+                    try {
+                        Socket connection = socket.accept();
+                        new Thread(() -> handle(connection)).start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        String getRootUrl() {
+            return "http://localhost:" + socket.getLocalPort();
+        }
+
+        String getUrl() {
+            return getRootUrl() + "/pets/1/info";
+        }
+
+        void stop() throws IOException {
+            socket.close();
+        }
+
+        private void handle(Socket connection) {
+            try (Socket s = connection) {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+                String method = reader.readLine().split(" ")[0];
+                String range = null;
+                String line;
+                while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                    if (line.toLowerCase().startsWith("range:")) {
+                        range = line.substring(6).trim();
+                    }
+                }
+                OutputStream out = s.getOutputStream();
+                if ("HEAD".equals(method)) {
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + data.length
+                            + "\r\nAccept-Ranges: bytes\r\nETag: \"v1\"\r\nConnection: close\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    return;
+                }
+                ranges.add(range);
+                int start = 0;
+                int end = data.length - 1;
+                String status = "200 OK";
+                String contentRange = "";
+                if (range != null) {
+                    String[] bounds = range.substring("bytes=".length()).split("-", -1);
+                    start = Integer.parseInt(bounds[0]);
+                    if (!bounds[1].isEmpty()) {
+                        end = Integer.parseInt(bounds[1]);
+                    }
+                    status = "206 Partial Content";
+                    contentRange = "Content-Range: bytes " + start + "-" + end + "/" + data.length + "\r\n";
+                }
+                int length = end - start + 1;
+                out.write(("HTTP/1.1 " + status + "\r\nContent-Length: " + length + "\r\n" + contentRange
+                        + "ETag: \"v1\"\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                boolean fail = failures.getAndDecrement() > 0;
+                out.write(data, start, fail ? length / 2 : length);
+                out.flush();
+            } catch (IOException e) {
+                //client went away
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.mykhaliev.api.client.loadbalancer;
+
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+public class LoadBalancerTest {
+
+    private static final List<String> ENDPOINTS = Arrays.asList("http://host1:8080/api", "http://host2:8080/api",
+            "https://host3/api/");
+
+    @Test
+    public void roundRobinTest() {
+        LoadBalancer balancer = balancer(LoadBalancer.Strategy.ROUND_ROBIN);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            Endpoint endpoint = balancer.select();
+            counts.merge(endpoint.getHost().getHostName(), 1, Integer::sum);
+            balancer.onResult(endpoint, false, 1000);
+        }
+        Assert.assertEquals(Integer.valueOf(10), counts.get("host1"));
+        Assert.assertEquals(Integer.valueOf(10), counts.get("host2"));
+        Assert.assertEquals(Integer.valueOf(10), counts.get("host3"));
+    }
+
+    @Test
+    public void leastOutstandingTest() {
+        LoadBalancer balancer = balancer(LoadBalancer.Strategy.LEAST_OUTSTANDING);
+        //requests are never answered, so they pile up evenly
+        for (int i = 0; i < 30; i++) {
+            balancer.select();
+        }
+        for (Endpoint endpoint : balancer.getEndpoints()) {
+            Assert.assertEquals(10, endpoint.getOutstanding());
+        }
+        balancer.onResult(balancer.getEndpoints().get(1), false, 1000);
+        Assert.assertSame(balancer.getEndpoints().get(1), balancer.select());
+    }
+
+    @Test
+    public void powerOfTwoChoicesTest() {
+        LoadBalancer balancer = balancer(LoadBalancer.Strategy.POWER_OF_TWO_CHOICES);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            Endpoint endpoint = balancer.select();
+            counts.merge(endpoint.getHost().getHostName(), 1, Integer::sum);
+            long latency = endpoint.getHost().getHostName().equals("host3") ? 50 : 5;
+            balancer.onResult(endpoint, false, TimeUnit.MILLISECONDS.toNanos(latency));
+        }
+        //slow endpoint only wins when it is not paired with a fast one
+        Assert.assertTrue(counts.getOrDefault("host3", 0) < 300);
+        Assert.assertTrue(counts.get("host1") > 1000);
+        Assert.assertTrue(counts.get("host2") > 1000);
+    }
+
+    @Test
+    public void ejectionTest() throws Exception {
+        LoadBalancer balancer = new LoadBalancer(() -> ENDPOINTS, null, LoadBalancer.Strategy.ROUND_ROBIN, 3, 100, 0);
+        Endpoint failing = balancer.getEndpoints().get(0);
+        for (int i = 0; i < 3; i++) {
+            failing.acquire();
+            balancer.onResult(failing, true, 1000);
+        }
+        Assert.assertTrue(failing.isEjected());
+        for (int i = 0; i < 20; i++) {
+            Endpoint endpoint = balancer.select();
+            Assert.assertNotSame(failing, endpoint);
+            balancer.onResult(endpoint, false, 1000);
+        }
+        //re-admitted after ejection time, next failure ejects it for longer
+        Thread.sleep(150);
+        Assert.assertFalse(failing.isEjected());
+        failing.acquire();
+        balancer.onResult(failing, true, 1000);
+        Assert.assertTrue(failing.isEjected());
+        Thread.sleep(150);
+        Assert.assertTrue(failing.isEjected());
+        Thread.sleep(100);
+        Assert.assertFalse(failing.isEjected());
+        failing.acquire();
+        balancer.onResult(failing, false, 1000);
+        failing.acquire();
+        balancer.onResult(failing, true, 1000);
+        Assert.assertFalse(failing.isEjected());
+    }
+
+    @Test
+    public void allEjectedTest() {
+        LoadBalancer balancer = new LoadBalancer(() -> ENDPOINTS, null, LoadBalancer.Strategy.ROUND_ROBIN, 1,
+                60000, 0);
+        for (Endpoint endpoint : balancer.getEndpoints()) {
+            endpoint.acquire();
+            balancer.onResult(endpoint, true, 1000);
+            Assert.assertTrue(endpoint.isEjected());
+        }
+        //ejection is ignored rather than failing every call
+        Assert.assertNotNull(balancer.select());
+    }
+
+    @Test
+    public void refreshTest() throws Exception {
+        AtomicReference<List<String>> urls = new AtomicReference<>(ENDPOINTS);
+        LoadBalancer balancer = new LoadBalancer(urls::get, "http://petstore/api", LoadBalancer.Strategy.ROUND_ROBIN,
+                5, 60000, 50);
+        Endpoint kept = balancer.getEndpoints().get(1);
+        List<String> changed = new ArrayList<>(ENDPOINTS.subList(1, 3));
+        changed.add("http://host4:8080/api");
+        changed.add("http://host5:8080/other");
+        urls.set(changed);
+        Thread.sleep(100);
+        balancer.release(balancer.select());
+        Assert.assertEquals(3, balancer.getEndpoints().size());
+        Assert.assertSame(kept, balancer.getEndpoints().get(0));
+        Assert.assertEquals("host4", balancer.getEndpoints().get(2).getHost().getHostName());
+    }
+
+    @Test(expected = RestApiClientException.class)
+    public void pathMismatchTest() {
+        new LoadBalancer(() -> ENDPOINTS, "http://petstore/v2", LoadBalancer.Strategy.ROUND_ROBIN, 5, 60000, 0);
+    }
+
+    private static LoadBalancer balancer(LoadBalancer.Strategy strategy) {
+        return new LoadBalancer(() -> ENDPOINTS, null, strategy, 5, 60000, 0);
+    }
+}
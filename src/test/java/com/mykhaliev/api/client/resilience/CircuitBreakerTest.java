@@ -0,0 +1,98 @@
+package com.mykhaliev.api.client.resilience;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+public class CircuitBreakerTest {
+
+    private final List<String> transitions = new ArrayList<>();
+
+    private final CircuitBreaker breaker = new CircuitBreaker("localhost/pets/{id}", 50, 80, 100, 10, 4, 50, 2,
+            (route, from, to) -> transitions.add(from + "->" + to));
+
+    @Test
+    public void opensOnFailureRateTest() {
+        record(false, 0);
+        record(true, 0);
+        record(false, 0);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        //2 of 4 calls failed
+        record(true, 0);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertFalse(breaker.tryAcquirePermission());
+        Assert.assertEquals("[CLOSED->OPEN]", transitions.toString());
+    }
+
+    @Test
+    public void opensOnSlowCallRateTest() {
+        for (int i = 0; i < 4; i++) {
+            record(false, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void slidingWindowTest() {
+        for (int i = 0; i < 4; i++) {
+            record(true, 0);
+            breaker.tryAcquirePermission();
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        CircuitBreaker windowed = new CircuitBreaker("route", 50, 0, 100, 4, 4, 50, 2, null);
+        windowed.onResult(true, 0);
+        for (int i = 0; i < 10; i++) {
+            windowed.onResult(false, 0);
+        }
+        //old failure left the window
+        windowed.onResult(true, 0);
+        Assert.assertEquals(25f, windowed.getFailureRate(), 0);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, windowed.getState());
+    }
+
+    @Test
+    public void halfOpenTest() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+        //trial calls
+        Assert.assertTrue(breaker.tryAcquirePermission());
+        Assert.assertTrue(breaker.tryAcquirePermission());
+        Assert.assertFalse(breaker.tryAcquirePermission());
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(false, 0);
+        breaker.onResult(false, 0);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertEquals("[CLOSED->OPEN, OPEN->HALF_OPEN, HALF_OPEN->CLOSED]", transitions.toString());
+    }
+
+    @Test
+    public void halfOpenFailureTest() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+        Assert.assertTrue(breaker.tryAcquirePermission());
+        Assert.assertTrue(breaker.tryAcquirePermission());
+        breaker.onResult(true, 0);
+        //cancelled trial call gives its permission back
+        breaker.releasePermission();
+        Assert.assertTrue(breaker.tryAcquirePermission());
+        breaker.onResult(true, 0);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertEquals("[CLOSED->OPEN, OPEN->HALF_OPEN, HALF_OPEN->OPEN]", transitions.toString());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            record(true, 0);
+        }
+    }
+
+    private void record(boolean failure, long durationNanos) {
+        Assert.assertTrue(breaker.tryAcquirePermission());
+        breaker.onResult(failure, durationNanos);
+    }
+}
@@ -0,0 +1,109 @@
+package com.mykhaliev.api.client.resilience;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+public class ConcurrencyLimiterTest {
+
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void acquireTest() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("petstore/pets", ConcurrencyLimiter.Algorithm.AIMD,
+                2, 1, 10, 1000);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire(20, TimeUnit.MILLISECONDS));
+        limiter.release();
+        Assert.assertTrue(limiter.tryAcquire());
+
+        //queued call proceeds once a slot is freed
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        Assert.assertFalse(queued.isDone());
+        limiter.onResult(false, MILLISECOND);
+        Assert.assertTrue(queued.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void aimdTest() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("petstore/pets", ConcurrencyLimiter.Algorithm.AIMD,
+                10, 1, 12, 100);
+        fill(limiter);
+        //about one slot per round of calls
+        run(limiter, MILLISECOND, 20);
+        Assert.assertEquals(11, limiter.getLimit());
+        run(limiter, MILLISECOND, 100);
+        Assert.assertEquals(12, limiter.getLimit());
+
+        //slow call counts as failure
+        Thread.sleep(150);
+        limiter.onResult(false, 120 * MILLISECOND);
+        Assert.assertEquals(10, limiter.getLimit());
+        //calls sent before the decrease do not cut the limit again
+        limiter.onResult(true, TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals(10, limiter.getLimit());
+        Thread.sleep(2);
+        limiter.onResult(true, 0);
+        Assert.assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    public void gradientTest() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("petstore/pets", ConcurrencyLimiter.Algorithm.GRADIENT,
+                20, 1, 100, 1000);
+        fill(limiter);
+        //no queueing at the server, limit grows
+        run(limiter, 10 * MILLISECOND, 1000);
+        int grown = limiter.getLimit();
+        Assert.assertTrue(String.valueOf(grown), grown > 30);
+        //requests queue at the server, limit shrinks until probe takes the new latency for no load latency
+        int shrunk = run(limiter, 40 * MILLISECOND, 600);
+        Assert.assertTrue(String.valueOf(shrunk), shrunk < grown / 2);
+    }
+
+    @Test
+    public void appLimitedTest() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("petstore/pets", ConcurrencyLimiter.Algorithm.GRADIENT,
+                20, 1, 100, 1000);
+        //caller using a single slot gives no evidence for a higher limit
+        for (int i = 0; i < 500; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.onResult(false, MILLISECOND);
+        }
+        Assert.assertEquals(20, limiter.getLimit());
+    }
+
+    private static void fill(ConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) {
+            //every slot in use
+        }
+    }
+
+    /**
+     * Answers calls with the same latency, keeping every slot in use.
+     *
+     * @return lowest limit seen
+     */
+    private static int run(ConcurrencyLimiter limiter, long rttNanos, int calls) {
+        int lowest = limiter.getLimit();
+        for (int i = 0; i < calls; i++) {
+            limiter.onResult(false, rttNanos);
+            fill(limiter);
+            lowest = Math.min(lowest, limiter.getLimit());
+        }
+        return lowest;
+    }
+}
@@ -0,0 +1,48 @@
+package com.mykhaliev.api.client.resilience;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+
+public class HedgingPolicyTest {
+
+    @Test
+    public void percentileDelayTest() {
+        HedgingPolicy policy = new HedgingPolicy(0, 95, null);
+        String route = "localhost/pets/{id}";
+        for (int i = 1; i < 20; i++) {
+            policy.onLatency(route, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        //not enough samples yet
+        Assert.assertEquals(-1, policy.hedgeDelay(route));
+        policy.onLatency(route, TimeUnit.MILLISECONDS.toNanos(20));
+        Assert.assertEquals(19, policy.hedgeDelay(route));
+        Assert.assertEquals(-1, policy.hedgeDelay("localhost/pets"));
+
+        for (int i = 0; i < 200; i++) {
+            policy.onLatency(route, TimeUnit.MILLISECONDS.toNanos(i < 180 ? 5 : 500));
+        }
+        //old samples left the window
+        Assert.assertEquals(500, policy.hedgeDelay(route));
+    }
+
+    @Test
+    public void fixedDelayTest() {
+        Assert.assertEquals(50, new HedgingPolicy(50, 95, null).hedgeDelay("route"));
+    }
+
+    @Test
+    public void budgetTest() {
+        HedgingPolicy policy = new HedgingPolicy(50, 95, new RetryBudget(10, 1));
+        //per second reserve
+        Assert.assertTrue(policy.tryHedge());
+        Assert.assertFalse(policy.tryHedge());
+        for (int i = 0; i < 10; i++) {
+            policy.onRequest();
+        }
+        Assert.assertTrue(policy.tryHedge());
+        Assert.assertFalse(policy.tryHedge());
+    }
+}
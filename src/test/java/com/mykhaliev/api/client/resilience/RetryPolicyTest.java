@@ -0,0 +1,114 @@
+package com.mykhaliev.api.client.resilience;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.ConnectException;
+import java.util.Date;
+
+
+public class RetryPolicyTest {
+
+    private final RetryPolicy policy = new RetryPolicy(5, 100, 1000, null, null, null);
+
+    @Test
+    public void backoffTest() {
+        HttpGet request = new HttpGet("http://localhost/pets");
+        long previousMax = 0;
+        for (int executionCount = 1; executionCount <= 5; executionCount++) {
+            long expected = Math.min(1000, 100L << (executionCount - 1));
+            long delay = policy.retryDelay(request, response(503), executionCount);
+            //equal jitter keeps at least half of the delay
+            Assert.assertTrue(delay >= expected / 2 && delay <= expected);
+            Assert.assertTrue(expected >= previousMax);
+            previousMax = expected;
+        }
+        Assert.assertEquals(-1, policy.retryDelay(request, response(503), 6));
+        Assert.assertEquals(-1, policy.retryDelay(request, response(500), 1));
+        Assert.assertTrue(policy.retryDelay(request, response(429), 1) >= 0);
+    }
+
+    @Test
+    public void retryAfterTest() {
+        HttpGet request = new HttpGet("http://localhost/pets");
+        HttpResponse seconds = response(429);
+        seconds.setHeader("Retry-After", "1");
+        Assert.assertEquals(1000, policy.retryDelay(request, seconds, 1));
+
+        HttpResponse date = response(503);
+        date.setHeader("Retry-After", DateUtils.formatDate(new Date(System.currentTimeMillis() + 10000)));
+        //longer than max delay, failing fast is better than holding the caller
+        Assert.assertEquals(-1, policy.retryDelay(request, date, 1));
+    }
+
+    @Test
+    public void exceptionTest() {
+        HttpGet get = new HttpGet("http://localhost/pets");
+        HttpPost post = new HttpPost("http://localhost/pets");
+        post.setEntity(new StringEntity("{}", "UTF-8"));
+
+        Assert.assertTrue(policy.retryDelay(get, new NoHttpResponseException("reset"), 1) >= 0);
+        Assert.assertEquals(-1, policy.retryDelay(post, new NoHttpResponseException("reset"), 1));
+        //request did not reach the server
+        Assert.assertTrue(policy.retryDelay(post, new ConnectException("refused"), 1) >= 0);
+        Assert.assertEquals(-1, policy.retryDelay(get, new IllegalStateException(), 1));
+    }
+
+    @Test
+    public void nonIdempotentStatusTest() {
+        HttpPost post = new HttpPost("http://localhost/pets");
+        post.setEntity(new StringEntity("{}", "UTF-8"));
+
+        //gateway errors may come after the server processed the request
+        Assert.assertEquals(-1, policy.retryDelay(post, response(502), 1));
+        Assert.assertEquals(-1, policy.retryDelay(post, response(504), 1));
+        Assert.assertTrue(policy.retryDelay(post, response(503), 1) >= 0);
+        Assert.assertTrue(policy.retryDelay(post, response(429), 1) >= 0);
+        Assert.assertTrue(policy.retryDelay(new HttpGet("http://localhost/pets"), response(502), 1) >= 0);
+    }
+
+    @Test
+    public void nonRepeatableTest() {
+        HttpPost post = new HttpPost("http://localhost/pets");
+        post.setEntity(new InputStreamEntity(new ByteArrayInputStream(new byte[1])));
+        Assert.assertEquals(-1, policy.retryDelay(post, response(503), 1));
+    }
+
+    @Test
+    public void budgetTest() {
+        RetryBudget budget = new RetryBudget(10, 0);
+        RetryPolicy budgeted = new RetryPolicy(5, 0, 1000, null, null, budget);
+        HttpGet request = new HttpGet("http://localhost/pets");
+        for (int i = 0; i < 30; i++) {
+            budgeted.onRequest();
+        }
+        Assert.assertEquals(3, budget.getAvailable());
+        int retries = 0;
+        while (budgeted.retryDelay(request, response(503), 1) >= 0) {
+            retries++;
+        }
+        Assert.assertEquals(3, retries);
+    }
+
+    @Test
+    public void budgetReserveTest() {
+        RetryBudget budget = new RetryBudget(10, 2);
+        Assert.assertTrue(budget.tryWithdraw());
+        Assert.assertTrue(budget.tryWithdraw());
+        Assert.assertFalse(budget.tryWithdraw());
+    }
+
+    private static HttpResponse response(int statusCode) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, null);
+    }
+}
@@ -0,0 +1,37 @@
+package com.mykhaliev.api.client.resilience;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URI;
+
+
+public class RouteGuardsTest {
+
+    @Test
+    public void routeOfTest() {
+        Assert.assertEquals("localhost:8089/pets", RouteGuards.routeOf(URI.create("http://localhost:8089/pets?limit=1")));
+        Assert.assertEquals("localhost:8089/pets/{id}/info",
+                RouteGuards.routeOf(URI.create("http://localhost:8089/pets/42/info")));
+        Assert.assertEquals("petstore/pets/{id}",
+                RouteGuards.routeOf(URI.create("https://petstore/pets/123e4567-e89b-12d3-a456-426614174000")));
+        Assert.assertEquals("petstore/", RouteGuards.routeOf(URI.create("https://petstore")));
+        Assert.assertEquals("localhost:8089/{other}",
+                RouteGuards.overflowRouteOf(URI.create("http://localhost:8089/users/john")));
+    }
+
+    @Test
+    public void bulkheadTest() {
+        RouteGuards guards = new RouteGuards(null, 2, null);
+        Bulkhead bulkhead = guards.bulkhead("petstore/pets/{id}");
+        Assert.assertSame(bulkhead, guards.bulkhead("petstore/pets/{id}"));
+        Assert.assertNotSame(bulkhead, guards.bulkhead("petstore/pets"));
+        Assert.assertTrue(bulkhead.tryAcquire());
+        Assert.assertTrue(bulkhead.tryAcquire());
+        Assert.assertFalse(bulkhead.tryAcquire());
+        bulkhead.release();
+        Assert.assertTrue(bulkhead.tryAcquire());
+        Assert.assertNull(guards.circuitBreaker("petstore/pets"));
+        Assert.assertNull(guards.concurrencyLimiter("petstore/pets"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.mykhaliev.api.client.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mykhaliev.api.client.exception.RestApiClientException;
+import com.mykhaliev.api.client.model.dto.Pet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+public class ResponseStreamTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private ResponseStream<Pet> createStream(String json) throws IOException {
+        return new ResponseStream<>(MAPPER.getFactory().createParser(json), MAPPER.readerFor(Pet.class),
+                () -> released.set(true));
+    }
+
+    @Test
+    public void envelopeAfterResultTest() throws IOException {
+        ResponseStream<Pet> stream = createStream("{\"apiVersion\":2,\"result\":[{\"id\":1,\"name\":\"a\"},"
+                + "{\"id\":2,\"name\":\"b\"}],\"limit\":2,\"skip\":4,\"total\":10}");
+        Assert.assertEquals(2, stream.getEnvelope().getApiVersion());
+        Assert.assertNull(stream.getEnvelope().getTotal());
+
+        Assert.assertEquals("a", stream.next().getName());
+        Assert.assertEquals("b", stream.next().getName());
+        Assert.assertFalse(stream.hasNext());
+        Assert.assertTrue(released.get());
+        Assert.assertEquals(Integer.valueOf(2), stream.getEnvelope().getLimit());
+        Assert.assertEquals(Long.valueOf(4L), stream.getEnvelope().getSkip());
+        Assert.assertEquals(Long.valueOf(10L), stream.getEnvelope().getTotal());
+    }
+
+    @Test
+    public void missingResultTest() throws IOException {
+        ResponseStream<Pet> stream = createStream("{\"apiVersion\":1,\"result\":null,\"total\":0,\"extra\":{\"a\":[1]}}");
+        Assert.assertFalse(stream.hasNext());
+        Assert.assertTrue(released.get());
+        Assert.assertEquals(Long.valueOf(0L), stream.getEnvelope().getTotal());
+    }
+
+    @Test
+    public void earlyCloseTest() throws IOException {
+        ResponseStream<Pet> stream = createStream("{\"result\":[{\"id\":1},{\"id\":2}]}");
+        Assert.assertEquals(Long.valueOf(1L), stream.next().getId());
+        stream.close();
+        Assert.assertTrue(released.get());
+        Assert.assertFalse(stream.hasNext());
+    }
+
+    @Test(expected = RestApiClientException.class)
+    public void malformedResultTest() throws IOException {
+        try {
+            createStream("{\"result\":{\"id\":1}}");
+        } finally {
+            Assert.assertTrue(released.get());
+        }
+    }
+}